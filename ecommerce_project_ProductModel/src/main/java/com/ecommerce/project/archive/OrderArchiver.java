@@ -0,0 +1,197 @@
+package com.ecommerce.project.archive;
+
+import com.ecommerce.project.payload.ArchiveStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves orders older than {@code afterDays} out of {@code orders}, {@code order_items} and
+ * {@code payment} into {@code archived_orders} and {@code archived_order_items}, so the live tables
+ * and their indexes stay the size of the recent orders that checkout writes to.
+ * <p>
+ * A run moves the oldest orders first, {@code batchSize} orders per transaction, and pauses
+ * {@code pauseMs} between batches so it never holds locks or I/O for long. Runs start every
+ * {@code intervalMs} on a background thread. An order is copied and deleted in the same
+ * transaction, so readers find it in exactly one of the two places; the order history reads both.
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private static final String SELECT_BATCH =
+            "SELECT order_id, payment_id FROM orders WHERE order_date < ? ORDER BY order_date, order_id LIMIT ?";
+
+    private static final String COPY_ORDERS =
+            "INSERT INTO archived_orders (order_id, email, order_date, total_amount, order_status, address_id, " +
+            "payment_id, payment_method, pg_payment_id, pg_status, pg_response_message, pg_name) " +
+            "SELECT o.order_id, o.email, o.order_date, o.total_amount, o.order_status, o.address_id, " +
+            "p.payment_id, p.payment_method, p.pg_payment_id, p.pg_status, p.pg_response_message, p.pg_name " +
+            "FROM orders o LEFT JOIN payment p ON p.payment_id = o.payment_id WHERE o.order_id IN ";
+
+    private static final String COPY_ORDER_ITEMS =
+            "INSERT INTO archived_order_items (order_item_id, order_id, product_id, quantity, discount, order_product_price) " +
+            "SELECT order_item_id, order_id, product_id, quantity, discount, order_product_price " +
+            "FROM order_items WHERE order_id IN ";
+
+    @Value("${project.archive.afterDays:365}")
+    private int afterDays;
+
+    @Value("${project.archive.batchSize:500}")
+    private int batchSize;
+
+    @Value("${project.archive.pauseMs:200}")
+    private long pauseMs;
+
+    @Value("${project.archive.intervalMs:3600000}")
+    private long intervalMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong archivedOrders = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private volatile Instant lastRunAt;
+    private volatile long lastRunOrders;
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::archiveQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a run right away instead of waiting for the next interval.
+     */
+    public ArchiveStats archiveNow() {
+        try {
+            executor.execute(this::archiveQuietly);
+        } catch (RejectedExecutionException e) {
+            // shutting down: the orders are archived after the next start
+        }
+        return stats();
+    }
+
+    /**
+     * Archives every order older than the cutoff and returns how many were moved.
+     */
+    public long archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        LocalDate cutoff = cutoffDate();
+        long moved = 0;
+        try {
+            int batch;
+            do {
+                batch = archiveBatch(cutoff);
+                moved += batch;
+                archivedOrders.addAndGet(batch);
+                if (batch == batchSize && pauseMs > 0) {
+                    // throttle: leave the database to checkout between batches
+                    Thread.sleep(pauseMs);
+                }
+            } while (batch == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastRunAt = Instant.now();
+            lastRunOrders = moved;
+            running.set(false);
+        }
+        if (moved > 0) {
+            logger.info("Archived {} orders placed before {}", moved, cutoff);
+        }
+        return moved;
+    }
+
+    public ArchiveStats stats() {
+        return new ArchiveStats(running.get(), cutoffDate(), lastRunAt, lastRunOrders, archivedOrders.get(), failedRuns.get());
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            failedRuns.incrementAndGet();
+            logger.warn("Order archival run failed, retrying in {} ms", intervalMs, e);
+        }
+    }
+
+    /**
+     * Copies and deletes one batch of the oldest orders in one transaction.
+     */
+    private int archiveBatch(LocalDate cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> orderIds = new ArrayList<>();
+            List<Long> paymentIds = new ArrayList<>();
+            jdbcTemplate.query(SELECT_BATCH, rs -> {
+                orderIds.add(rs.getLong("order_id"));
+                long paymentId = rs.getLong("payment_id");
+                if (!rs.wasNull()) {
+                    paymentIds.add(paymentId);
+                }
+            }, cutoff, batchSize);
+            if (orderIds.isEmpty()) {
+                return 0;
+            }
+            String orders = in(orderIds.size());
+            Object[] orderArgs = orderIds.toArray();
+            jdbcTemplate.update(COPY_ORDERS + orders, orderArgs);
+            jdbcTemplate.update(COPY_ORDER_ITEMS + orders, orderArgs);
+            // children before parents: order_items -> orders -> payment
+            jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN " + orders, orderArgs);
+            jdbcTemplate.update("DELETE FROM orders WHERE order_id IN " + orders, orderArgs);
+            if (!paymentIds.isEmpty()) {
+                jdbcTemplate.update("DELETE FROM payment WHERE payment_id IN " + in(paymentIds.size()), paymentIds.toArray());
+            }
+            return orderIds.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    private LocalDate cutoffDate() {
+        return LocalDate.now().minusDays(afterDays);
+    }
+
+    private static String in(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.project.cache;
+
+import com.ecommerce.project.payload.CacheStats;
+import com.ecommerce.project.payload.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache for product listing pages.
+ * <p>
+ * Pages are kept in LRU order and bounded by their weight (number of products in the page),
+ * so a few very large pages cannot push the heap around. Every catalog write calls
+ * {@link #invalidateAfterCommit()}, which drops all pages at once when the write commits.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final long maxWeight;
+
+    private final LinkedHashMap<String, ProductResponse> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentWeight = 0;
+
+    // bumped on every invalidation so a page loaded before a write is never stored after it
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCatalogCache(@Value("${project.cache.products.maxWeight:10000}") long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the cached page for the key, or loads it and caches the result.
+     */
+    public ProductResponse get(String key, Supplier<ProductResponse> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            ProductResponse cached = pages.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        misses.incrementAndGet();
+
+        // load outside the lock so a slow query does not block other readers
+        ProductResponse loaded = loader.get();
+        put(key, loaded, loadGeneration);
+        return loaded;
+    }
+
+    /**
+     * Drops every cached page once the current transaction commits, or right away when there is none.
+     * Dropping them before the commit would let a reader cache the rows the write is replacing.
+     */
+    public void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAll();
+                }
+            });
+        } else {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Drops every cached page.
+     */
+    public synchronized void invalidateAll() {
+        pages.clear();
+        currentWeight = 0;
+        generation++;
+        invalidations.incrementAndGet();
+    }
+
+    public CacheStats stats() {
+        synchronized (this) {
+            return new CacheStats(hits.get(), misses.get(), evictions.get(), invalidations.get(),
+                    pages.size(), currentWeight, maxWeight);
+        }
+    }
+
+    private synchronized void put(String key, ProductResponse page, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        long weight = weigh(page);
+        if (weight > maxWeight) {
+            return;
+        }
+        ProductResponse previous = pages.put(key, page);
+        if (previous != null) {
+            currentWeight -= weigh(previous);
+        }
+        currentWeight += weight;
+
+        // evict least recently used pages until we are back under the bound
+        Iterator<Map.Entry<String, ProductResponse>> it = pages.entrySet().iterator();
+        while (currentWeight > maxWeight && it.hasNext()) {
+            Map.Entry<String, ProductResponse> eldest = it.next();
+            currentWeight -= weigh(eldest.getValue());
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static long weigh(ProductResponse page) {
+        return page.getContent() == null ? 1 : Math.max(1, page.getContent().size());
+    }
+}
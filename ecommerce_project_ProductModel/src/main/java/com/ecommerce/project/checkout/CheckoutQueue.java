@@ -0,0 +1,218 @@
+package com.ecommerce.project.checkout;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.model.CheckoutRequest;
+import com.ecommerce.project.model.CheckoutStatus;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.repository.CheckoutRequestRepository;
+import com.ecommerce.project.service.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded in-process queue of journaled checkout requests, drained by a small worker pool.
+ * <p>
+ * Only journal ids are queued; the {@link CheckoutRequest} rows are the durable record. Each worker
+ * takes up to a batch of ids, marks them PROCESSING with one update and places their orders one by
+ * one, each in its own transaction together with the journal update, so an order and its COMPLETED
+ * status commit or roll back as one. At most {@code workers} checkouts hold a database connection
+ * at a time, however many are waiting. Entries whose journal update fails are put back on the queue
+ * after {@code retryDelayMs} rather than left unfinished, since an unfinished entry blocks its
+ * user's next checkout.
+ */
+@Component
+public class CheckoutQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutQueue.class);
+
+    private static final List<CheckoutStatus> UNFINISHED = List.of(CheckoutStatus.QUEUED, CheckoutStatus.PROCESSING);
+
+    @Value("${project.checkout.queueCapacity:1000}")
+    private int capacity;
+
+    @Value("${project.checkout.workers:2}")
+    private int workers;
+
+    @Value("${project.checkout.batchSize:20}")
+    private int batchSize;
+
+    @Value("${project.checkout.retryDelayMs:1000}")
+    private long retryDelayMs;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CheckoutRequestRepository checkoutRequestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BlockingQueue<Long> queue;
+    private ExecutorService executor;
+    private ScheduledExecutorService retries;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "checkout-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkout-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::drain);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        retries.shutdownNow();
+    }
+
+    /**
+     * Puts journal entries left QUEUED or PROCESSING by the last run back on the queue. Runs on its
+     * own thread and waits for room, so a long backlog is fed in as the workers drain it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<Long> unfinished = checkoutRequestRepository.findIdsByStatusIn(UNFINISHED);
+        if (unfinished.isEmpty()) {
+            return;
+        }
+        logger.info("Re-queueing {} unfinished checkout requests", unfinished.size());
+        Thread recovery = new Thread(() -> {
+            try {
+                for (Long id : unfinished) {
+                    queue.put(id);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "checkout-recovery");
+        recovery.setDaemon(true);
+        recovery.start();
+    }
+
+    /**
+     * Queues a journaled request; returns false if the queue is full.
+     */
+    public boolean offer(Long checkoutRequestId) {
+        return queue.offer(checkoutRequestId);
+    }
+
+    public boolean isFull() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    private void drain() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        checkoutRequestRepository.markProcessing(batch, Instant.now()));
+            } catch (RuntimeException e) {
+                logger.error("Could not mark checkout batch {} as processing, retrying", batch, e);
+                retryLater(List.copyOf(batch));
+                batch.clear();
+                continue;
+            }
+            // one entry whose journal update fails must not take the rest of the batch with it
+            for (Long checkoutRequestId : batch) {
+                try {
+                    process(checkoutRequestId);
+                } catch (RuntimeException e) {
+                    logger.error("Could not finish checkout request {}, retrying", checkoutRequestId, e);
+                    retryLater(List.of(checkoutRequestId));
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Puts the entries back on the queue after the retry delay, waiting again for any that find it full.
+     * Processing an entry again is safe: finished entries are skipped, and an order that did not
+     * commit left its entry unfinished.
+     */
+    private void retryLater(List<Long> checkoutRequestIds) {
+        try {
+            retries.schedule(() -> {
+                List<Long> left = checkoutRequestIds.stream().filter(id -> !queue.offer(id)).toList();
+                if (!left.isEmpty()) {
+                    retryLater(left);
+                }
+            }, retryDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down: the entries stay unfinished and are re-queued on the next start
+            logger.warn("Checkout requests {} left unfinished at shutdown", checkoutRequestIds);
+        }
+    }
+
+    private void process(Long checkoutRequestId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                CheckoutRequest request = checkoutRequestRepository.findById(checkoutRequestId).orElse(null);
+                if (request == null || request.getStatus() == CheckoutStatus.COMPLETED
+                        || request.getStatus() == CheckoutStatus.FAILED) {
+                    return;
+                }
+                // joins this transaction, so the order and its journal entry commit together
+                OrderDTO order = orderService.placeOrder(request.getEmail(), request.getAddressId(), request.getPaymentMethod(),
+                        request.getPgName(), request.getPgPaymentId(), request.getPgStatus(), request.getPgResponseMessage());
+                request.setStatus(CheckoutStatus.COMPLETED);
+                request.setActiveEmail(null);
+                request.setOrderId(order.getOrderId());
+                request.setUpdatedAt(Instant.now());
+            });
+        } catch (APIException | ResourceNotFoundException e) {
+            fail(checkoutRequestId, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Checkout request {} failed", checkoutRequestId, e);
+            fail(checkoutRequestId, "Order could not be placed");
+        }
+    }
+
+    private void fail(Long checkoutRequestId, String reason) {
+        transactionTemplate.executeWithoutResult(status ->
+                checkoutRequestRepository.markFailed(checkoutRequestId, reason, Instant.now()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.project.checkout;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.payload.OrderDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the order placed for each idempotency key, so a retried checkout gets the original
+ * {@link OrderDTO} back instead of placing a second order.
+ * <p>
+ * A duplicate that arrives while the first request is still running waits for its result rather
+ * than starting another checkout. Failed attempts are forgotten, so the client can retry them with
+ * the same key. Every entry lives for the same TTL, so the insertion order of the map is also the
+ * expiry order and eviction only ever looks at its head; {@code maxEntries} caps memory on top of
+ * that. An entry whose order is still being placed is never evicted, so its duplicates keep waiting
+ * for it instead of placing a second order.
+ */
+@Component
+public class OrderIdempotencyStore {
+
+    @Value("${project.idempotency.ttlSeconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${project.idempotency.maxEntries:100000}")
+    private int maxEntries;
+
+    // insertion (= expiry) order; guarded by itself, held only for map operations
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Places the order once per (user, key). {@code request} holds the request parameters; reusing
+     * a key for a different request is rejected.
+     */
+    public OrderDTO placeOnce(String emailId, String idempotencyKey, List<?> request, Supplier<OrderDTO> placeOrder) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new APIException("Idempotency-Key must be between 1 and 255 characters");
+        }
+        long now = System.currentTimeMillis();
+        String key = emailId + ':' + idempotencyKey;
+        Entry entry = new Entry(request, now + ttlSeconds * 1000);
+        Entry existing;
+        synchronized (entries) {
+            evict(now);
+            // anything still here has not expired, or is still being placed
+            existing = entries.putIfAbsent(key, entry);
+        }
+
+        // duplicate: hand back the original result (waiting for it if still in flight)
+        if (existing != null) {
+            if (!existing.request.equals(request)) {
+                throw new APIException("Idempotency-Key " + idempotencyKey + " was already used for a different order request");
+            }
+            return await(existing);
+        }
+
+        try {
+            OrderDTO orderDTO = placeOrder.get();
+            entry.result.complete(orderDTO);
+            return orderDTO;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Entry> oldestFirst = entries.values().iterator();
+        while (oldestFirst.hasNext()) {
+            Entry entry = oldestFirst.next();
+            if (entry.expiresAt > now && entries.size() <= maxEntries) {
+                return;
+            }
+            // an order still being placed stays, whatever its age
+            if (entry.result.isDone()) {
+                oldestFirst.remove();
+            }
+        }
+    }
+
+    private static OrderDTO await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            // the original attempt failed: report the same error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final List<?> request;
+        private final long expiresAt;
+        private final CompletableFuture<OrderDTO> result = new CompletableFuture<>();
+
+        private Entry(List<?> request, long expiresAt) {
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ecommerce.project.config;
 public class AppConstants {
     public static final String PAGE_NUMBER = "0";
     public static final String PAGE_SIZE = "50";
+    public static final int MAX_PAGE_SIZE = 100;
     public static final String SORT_CATEGORIES_BY = "categoryId";
     public static final String SORT_PRODUCTS_BY = "productId";
     public static final String SORT_DIR = "asc";
@@ -79,7 +79,7 @@ public class AuthController {
         ResponseCookie jwtCookie = jwtUtils.generateJwtCookie(userDetails);
 
         // ✅ Generate JWT Token String (for Swagger/Postman)
-        String jwtToken = jwtUtils.getTokenFromUserName(userDetails.getUsername());
+        String jwtToken = jwtUtils.getTokenFromUser(userDetails);
 
         // ✅ Extract user roles
         List<String> roles = userDetails.getAuthorities()
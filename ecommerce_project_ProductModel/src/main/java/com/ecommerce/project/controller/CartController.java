@@ -3,6 +3,8 @@ package com.ecommerce.project.controller;
 
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.RepricingStats;
+import com.ecommerce.project.pricing.CartRepricingPipeline;
 import com.ecommerce.project.repository.CartRepository;
 import com.ecommerce.project.service.CartService;
 import com.ecommerce.project.util.AuthUtil;
@@ -26,6 +28,9 @@ public class CartController {
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private CartRepricingPipeline cartRepricingPipeline;
+
     @PostMapping("/carts/products/{productId}/quantity/{quantity}")
     private ResponseEntity<CartDTO>addProductToCart(@PathVariable Long productId,@PathVariable Integer quantity){
          CartDTO cartDTO= cartService.addProductToCart(productId,quantity);
@@ -60,4 +65,9 @@ public class CartController {
       return new ResponseEntity<String>(status,HttpStatus.OK);
     }
 
+    //background cart repricing backlog and lag
+    @GetMapping("/admin/carts/repricing/stats")
+    public ResponseEntity<RepricingStats> getRepricingStats(){
+        return new ResponseEntity<>(cartRepricingPipeline.stats(),HttpStatus.OK);
+    }
 }
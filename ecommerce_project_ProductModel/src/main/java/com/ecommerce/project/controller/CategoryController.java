@@ -43,6 +43,19 @@ public class CategoryController {
      CategoryResponse categoryResponse = categoryService.getAllcategories(pageNumber,pageSize,sortBy,sortOrder);
      return new ResponseEntity<>(categoryResponse,HttpStatus.OK);
  }
+    //cursor (keyset) listing---->COUNT(*) only when includeTotal=true
+    @GetMapping("/public/categories/cursor")
+    public ResponseEntity<CategoryResponse> getAllCategoriesByCursor(
+            @RequestParam(name = "after",required = false) String after,
+            @RequestParam(name = "pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+            @RequestParam(name = "sortBy",defaultValue = AppConstants.SORT_CATEGORIES_BY,required = false) String sortBy,
+            @RequestParam(name = "sortOrder",defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder,
+            @RequestParam(name = "includeTotal",defaultValue = "false",required = false) boolean includeTotal)
+    {
+        CategoryResponse categoryResponse = categoryService.getAllCategoriesByCursor(after,pageSize,sortBy,sortOrder,includeTotal);
+        return new ResponseEntity<>(categoryResponse,HttpStatus.OK);
+    }
+
     @Tag(name = "category api's",description = "Api;s for managing categories")
     @Operation(summary = "Create Category", description = "API to create a new category")
     @ApiResponses({
@@ -1,15 +1,29 @@
 package com.ecommerce.project.controller;
 
 
+import com.ecommerce.project.archive.OrderArchiver;
+import com.ecommerce.project.checkout.OrderIdempotencyStore;
+import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.outbox.OutboxRelay;
+import com.ecommerce.project.payload.ArchiveStats;
+import com.ecommerce.project.payload.CheckoutStatusDTO;
 import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderHistoryResponse;
 import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.payload.OutboxStats;
+import com.ecommerce.project.service.AsyncCheckoutService;
 import com.ecommerce.project.service.OrderService;
 import com.ecommerce.project.util.AuthUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api")
 public class OrderController {
@@ -17,20 +31,119 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Autowired
+    private OrderIdempotencyStore orderIdempotencyStore;
+
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
     //place order
+    //a retry carrying the same Idempotency-Key gets the original order back instead of placing another one
     @PostMapping("/order/users/payments/{paymentMethod}")
     public ResponseEntity<OrderDTO>placeOrder(
             @PathVariable String paymentMethod,
-            @RequestBody OrderRequestDTO orderRequestDTO
+            @RequestBody OrderRequestDTO orderRequestDTO,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ){
         String emailId=authUtil.loggedInEmail();
-        OrderDTO orderDTO = orderService.placeOrder(emailId,orderRequestDTO.getAddressId(),paymentMethod,orderRequestDTO.getPgName(),
+        Supplier<OrderDTO> placeOrder=()->orderService.placeOrder(emailId,orderRequestDTO.getAddressId(),paymentMethod,orderRequestDTO.getPgName(),
                                 orderRequestDTO.getPgPaymentId(),orderRequestDTO.getPgStatus(),orderRequestDTO.getPgResponseMessage());
 
+        OrderDTO orderDTO = idempotencyKey==null
+                ? placeOrder.get()
+                : orderIdempotencyStore.placeOnce(emailId,idempotencyKey,
+                        Arrays.asList(paymentMethod,orderRequestDTO.getAddressId(),orderRequestDTO.getPgName(),
+                                orderRequestDTO.getPgPaymentId(),orderRequestDTO.getPgStatus(),orderRequestDTO.getPgResponseMessage()),
+                        placeOrder);
+
         return new ResponseEntity<>(orderDTO, HttpStatus.CREATED);
 
     }
+
+    //place order through the checkout queue: returns a reference to poll instead of the order
+    @PostMapping("/order/users/payments/{paymentMethod}/async")
+    public ResponseEntity<CheckoutStatusDTO>placeOrderAsync(
+            @PathVariable String paymentMethod,
+            @RequestBody OrderRequestDTO orderRequestDTO
+    ){
+        String emailId=authUtil.loggedInEmail();
+        CheckoutStatusDTO checkoutStatusDTO=asyncCheckoutService.submitOrder(emailId,paymentMethod,orderRequestDTO);
+        return new ResponseEntity<>(checkoutStatusDTO, HttpStatus.ACCEPTED);
+    }
+
+    //status of an order placed through the checkout queue
+    @GetMapping("/order/users/checkouts/{reference}")
+    public ResponseEntity<CheckoutStatusDTO>getCheckoutStatus(@PathVariable String reference){
+        String emailId=authUtil.loggedInEmail();
+        CheckoutStatusDTO checkoutStatusDTO=asyncCheckoutService.getCheckoutStatus(emailId,reference);
+        return new ResponseEntity<>(checkoutStatusDTO, HttpStatus.OK);
+    }
+
+    //order history of the logged-in user, newest first (keyset pagination)
+    @GetMapping("/orders")
+    public ResponseEntity<OrderHistoryResponse>getUserOrders(
+            @RequestParam(name="after",required = false) String after,
+            @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+            @RequestParam(name="orderStatus",required = false) String orderStatus,
+            @RequestParam(name="fromDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name="toDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate){
+        String emailId=authUtil.loggedInEmail();
+        OrderHistoryResponse orderHistoryResponse=orderService.getOrders(emailId,orderStatus,fromDate,toDate,after,pageSize);
+        return new ResponseEntity<>(orderHistoryResponse,HttpStatus.OK);
+    }
+
+    //one order of the logged-in user with its items, payment and address
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<OrderDTO>getUserOrder(@PathVariable Long orderId){
+        String emailId=authUtil.loggedInEmail();
+        OrderDTO orderDTO=orderService.getOrder(emailId,orderId);
+        return new ResponseEntity<>(orderDTO,HttpStatus.OK);
+    }
+
+    //all orders, newest first (keyset pagination), optionally filtered by user, status and date range
+    @GetMapping("/admin/orders")
+    public ResponseEntity<OrderHistoryResponse>getAllOrders(
+            @RequestParam(name="after",required = false) String after,
+            @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+            @RequestParam(name="email",required = false) String email,
+            @RequestParam(name="orderStatus",required = false) String orderStatus,
+            @RequestParam(name="fromDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name="toDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate){
+        OrderHistoryResponse orderHistoryResponse=orderService.getOrders(email,orderStatus,fromDate,toDate,after,pageSize);
+        return new ResponseEntity<>(orderHistoryResponse,HttpStatus.OK);
+    }
+
+    //any order with its items, payment and address
+    @GetMapping("/admin/orders/{orderId}")
+    public ResponseEntity<OrderDTO>getOrder(@PathVariable Long orderId){
+        OrderDTO orderDTO=orderService.getOrder(null,orderId);
+        return new ResponseEntity<>(orderDTO,HttpStatus.OK);
+    }
+
+    //move orders past the archive age out of the live tables now instead of at the next scheduled run
+    @PostMapping("/admin/orders/archive")
+    public ResponseEntity<ArchiveStats>archiveOrders(){
+        return new ResponseEntity<>(orderArchiver.archiveNow(),HttpStatus.ACCEPTED);
+    }
+
+    //archive cutoff and orders moved so far
+    @GetMapping("/admin/orders/archive/stats")
+    public ResponseEntity<ArchiveStats>getArchiveStats(){
+        return new ResponseEntity<>(orderArchiver.stats(),HttpStatus.OK);
+    }
+
+    //outbox backlog, delivery lag and failures
+    @GetMapping("/admin/outbox/stats")
+    public ResponseEntity<OutboxStats>getOutboxStats(){
+        return new ResponseEntity<>(outboxRelay.stats(),HttpStatus.OK);
+    }
 }
@@ -2,19 +2,32 @@ package com.ecommerce.project.controller;
 
 
 
+import com.ecommerce.project.cache.ProductCatalogCache;
 import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.inventory.FlashSaleInventory;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CacheStats;
+import com.ecommerce.project.payload.FlashSaleStats;
 import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportResponse;
 import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.service.ProductExportService;
+import com.ecommerce.project.service.ProductImportService;
 import com.ecommerce.project.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -24,6 +37,18 @@ public class ProductController {
     @Autowired
     ProductService productService;
 
+    @Autowired
+    ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    ProductImportService productImportService;
+
+    @Autowired
+    ProductExportService productExportService;
+
+    @Autowired
+    FlashSaleInventory flashSaleInventory;
+
 
     //add product
     @PostMapping("/admin/categories/{categoryId}/product")
@@ -32,6 +57,31 @@ public class ProductController {
        return new ResponseEntity<>(productAdded, HttpStatus.CREATED);
     }
 
+    //bulk import products (NDJSON or CSV body, streamed line by line)
+    @PostMapping("/admin/categories/{categoryId}/products/import")
+    public ResponseEntity<ProductImportResponse> importProducts(@PathVariable Long categoryId,
+                                                                @RequestParam(name="format",defaultValue = "ndjson",required = false) String format,
+                                                                InputStream body) throws IOException {
+        ProductImportResponse importResponse = productImportService.importProducts(categoryId,body,format);
+        return new ResponseEntity<>(importResponse,HttpStatus.OK);
+    }
+
+    //full catalog export (NDJSON or CSV), streamed straight from a database cursor
+    @GetMapping("/admin/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(name="format",defaultValue = "ndjson",required = false) String format){
+        boolean csv = format.equalsIgnoreCase("csv");
+        //checked up front: once streaming starts the status is already committed
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            throw new APIException("Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = outputStream -> productExportService.exportProducts(outputStream,format);
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
     //get all products
     //need to debug this
     @GetMapping("/public/products")
@@ -45,6 +95,18 @@ public class ProductController {
         return new ResponseEntity<>(productResponse,HttpStatus.OK);
     }
 
+    //get all products using a cursor (keyset pagination)
+    @GetMapping("/public/products/cursor")
+    public ResponseEntity<ProductResponse> getAllProductsByCursor(
+            @RequestParam(name="after",required = false) String after,
+            @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+            @RequestParam(name="sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY,required = false) String sortBy,
+            @RequestParam(name="sortOrder", defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder,
+            @RequestParam(name="includeTotal", defaultValue = "false",required = false) boolean includeTotal){
+        ProductResponse productResponse = productService.getAllProductByCursor(after,pageSize,sortBy,sortOrder,includeTotal);
+        return new ResponseEntity<>(productResponse,HttpStatus.OK);
+    }
+
     //get all products by category
     @GetMapping("/public/categories/{categoryId}/products")
     public ResponseEntity<ProductResponse> searchByCategory(@PathVariable Long categoryId,
@@ -56,6 +118,18 @@ public class ProductController {
         return new ResponseEntity<>(allProductByCategory,HttpStatus.OK);
     }
 
+    //get all products by category using a cursor (keyset pagination)
+    @GetMapping("/public/categories/{categoryId}/products/cursor")
+    public ResponseEntity<ProductResponse> searchByCategoryByCursor(@PathVariable Long categoryId,
+        @RequestParam(name="after",required = false) String after,
+        @RequestParam(name="pageSize",defaultValue = AppConstants.PAGE_SIZE,required = false) Integer pageSize,
+        @RequestParam(name="sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY,required = false) String sortBy,
+        @RequestParam(name="sortOrder", defaultValue = AppConstants.SORT_DIR,required = false) String sortOrder,
+        @RequestParam(name="includeTotal", defaultValue = "false",required = false) boolean includeTotal){
+        ProductResponse productResponse = productService.searchByCategoryByCursor(categoryId,after,pageSize,sortBy,sortOrder,includeTotal);
+        return new ResponseEntity<>(productResponse,HttpStatus.OK);
+    }
+
     //search products using keyword
     @GetMapping("/public/products/keyword/{keyword}")
     public ResponseEntity<ProductResponse>searchProductByKeyword(@PathVariable String keyword,
@@ -92,4 +166,27 @@ public class ProductController {
        return new ResponseEntity<>(updatedProduct,HttpStatus.OK);
     }
 
+    //product cache counters
+    @GetMapping("/admin/products/cache/stats")
+    public ResponseEntity<CacheStats> getProductCacheStats(){
+        return new ResponseEntity<>(productCatalogCache.stats(),HttpStatus.OK);
+    }
+
+    //move the product's stock into memory for a limited drop
+    @PostMapping("/admin/products/{productId}/flash-sale")
+    public ResponseEntity<FlashSaleStats> startFlashSale(@PathVariable Long productId){
+        return new ResponseEntity<>(flashSaleInventory.startSale(productId),HttpStatus.CREATED);
+    }
+
+    //hand the product's stock back to the database
+    @DeleteMapping("/admin/products/{productId}/flash-sale")
+    public ResponseEntity<FlashSaleStats> endFlashSale(@PathVariable Long productId){
+        return new ResponseEntity<>(flashSaleInventory.endSale(productId),HttpStatus.OK);
+    }
+
+    //stock, unwritten units and orders in progress of every product on flash sale
+    @GetMapping("/admin/products/flash-sales")
+    public ResponseEntity<List<FlashSaleStats>> getFlashSales(){
+        return new ResponseEntity<>(flashSaleInventory.stats(),HttpStatus.OK);
+    }
 }
@@ -0,0 +1,70 @@
+package com.ecommerce.project.controller;
+
+
+import com.ecommerce.project.payload.SalesRankDTO;
+import com.ecommerce.project.payload.SalesRebuildStatus;
+import com.ecommerce.project.payload.SalesReportResponse;
+import com.ecommerce.project.service.SalesReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class SalesReportController {
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    //revenue, units and orders per day (last 30 days when no range is given)
+    @GetMapping("/admin/reports/sales")
+    public ResponseEntity<SalesReportResponse>getDailySales(
+            @RequestParam(name="fromDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name="toDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate){
+        return new ResponseEntity<>(salesReportService.getDailySales(fromDate,toDate),HttpStatus.OK);
+    }
+
+    //best sellers by units
+    @GetMapping("/admin/reports/sales/products")
+    public ResponseEntity<List<SalesRankDTO>>getTopProducts(
+            @RequestParam(name="fromDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name="toDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(name="limit",defaultValue = "10",required = false) Integer limit){
+        return new ResponseEntity<>(salesReportService.getTopProducts(fromDate,toDate,limit),HttpStatus.OK);
+    }
+
+    //revenue per category
+    @GetMapping("/admin/reports/sales/categories")
+    public ResponseEntity<List<SalesRankDTO>>getTopCategories(
+            @RequestParam(name="fromDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name="toDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(name="limit",defaultValue = "10",required = false) Integer limit){
+        return new ResponseEntity<>(salesReportService.getTopCategories(fromDate,toDate,limit),HttpStatus.OK);
+    }
+
+    //revenue per seller
+    @GetMapping("/admin/reports/sales/sellers")
+    public ResponseEntity<List<SalesRankDTO>>getTopSellers(
+            @RequestParam(name="fromDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(name="toDate",required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(name="limit",defaultValue = "10",required = false) Integer limit){
+        return new ResponseEntity<>(salesReportService.getTopSellers(fromDate,toDate,limit),HttpStatus.OK);
+    }
+
+    //recompute every aggregate from the order lines in the background
+    @PostMapping("/admin/reports/sales/rebuild")
+    public ResponseEntity<SalesRebuildStatus>rebuild(){
+        return new ResponseEntity<>(salesReportService.rebuild(),HttpStatus.ACCEPTED);
+    }
+
+    //progress of the last rebuild
+    @GetMapping("/admin/reports/sales/rebuild")
+    public ResponseEntity<SalesRebuildStatus>getRebuildStatus(){
+        return new ResponseEntity<>(salesReportService.getRebuildStatus(),HttpStatus.OK);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.project.controller;
+
+
+import com.ecommerce.project.payload.PasswordHashingStats;
+import com.ecommerce.project.security.response.MessageResponse;
+import com.ecommerce.project.security.services.PooledPasswordEncoder;
+import com.ecommerce.project.security.services.TokenRevocations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+public class UserController {
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Autowired
+    private PooledPasswordEncoder passwordEncoder;
+
+    //refuses every token issued to the user so far (e.g. after one of their roles is taken away)
+    @PostMapping("/admin/users/{userId}/tokens/revoke")
+    public ResponseEntity<MessageResponse>revokeTokens(@PathVariable Long userId){
+        tokenRevocations.revoke(userId);
+        return new ResponseEntity<>(new MessageResponse("Tokens revoked for user " + userId),HttpStatus.OK);
+    }
+
+    //queue depth and throughput of the sign-in/sign-up hashing pool
+    @GetMapping("/admin/auth/password-hashing/stats")
+    public ResponseEntity<PasswordHashingStats>getPasswordHashingStats(){
+        return new ResponseEntity<>(passwordEncoder.stats(),HttpStatus.OK);
+    }
+}
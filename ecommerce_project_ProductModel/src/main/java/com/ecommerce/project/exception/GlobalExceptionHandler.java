@@ -2,6 +2,7 @@ package com.ecommerce.project.exception;
 
 
 import com.ecommerce.project.payload.APIResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -43,4 +44,20 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(message,HttpStatus.BAD_REQUEST);
     }
 
-}
\ No newline at end of file
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<APIResponse> myTooManyRequestsException(TooManyRequestsException e){
+        APIResponse apiResponse=new APIResponse(e.getMessage(),false);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER,String.valueOf(e.getRetryAfterSeconds()))
+                .body(apiResponse);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<APIResponse> myServiceUnavailableException(ServiceUnavailableException e){
+        APIResponse apiResponse=new APIResponse(e.getMessage(),false);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER,String.valueOf(e.getRetryAfterSeconds()))
+                .body(apiResponse);
+    }
+
+}
@@ -0,0 +1,363 @@
+package com.ecommerce.project.inventory;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.model.FlashSale;
+import com.ecommerce.project.payload.FlashSaleStats;
+import com.ecommerce.project.repository.FlashSaleRepository;
+import com.ecommerce.project.repository.OrderItemRepository;
+import com.ecommerce.project.util.TimeOrderedIdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flash-sale mode: the stock of a product is held in an in-memory {@link StripedStockCounter},
+ * so the checkouts of a limited drop do not all queue on the same {@code products} row.
+ * <p>
+ * Reservations are granted from the counter without a database round trip. Units of committed
+ * orders are written to {@code products.quantity} in one batch every {@code flushIntervalMs};
+ * units of orders that roll back go back to the counter. The {@link FlashSale} row records how
+ * much has been written. On startup, units of order lines that were committed but never written
+ * (the application stopped in between) are applied from the order lines themselves, then open
+ * sales are reloaded from the product rows. Only lines with ids after the sale's start marker are
+ * counted, so an order whose lines got their ids before the marker is refused by the sale. The counter lives in one JVM, so a product must only
+ * be on flash sale while a single instance takes orders.
+ */
+@Component
+public class FlashSaleInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleInventory.class);
+
+    private static final String DECREMENT = "UPDATE products SET quantity = quantity - ? WHERE product_id = ?";
+    private static final String ADD_FLUSHED = "UPDATE flash_sales SET flushed_quantity = flushed_quantity + ? WHERE product_id = ?";
+
+    @Value("${project.flashsale.stripes:0}")
+    private int stripes;
+
+    @Value("${project.flashsale.flushIntervalMs:1000}")
+    private long flushIntervalMs;
+
+    @Autowired
+    private FlashSaleRepository flashSaleRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentHashMap<Long, Sale> sales = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        if (stripes <= 0) {
+            stripes = Runtime.getRuntime().availableProcessors();
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // before any order can be placed, so a product on sale never falls back to a stale row
+        recover();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    /**
+     * Moves the product's stock into memory. From the moment this commits the product's row
+     * refuses database reservations, so an order that still tries one is rejected rather than
+     * sold twice.
+     */
+    public FlashSaleStats startSale(Long productId) {
+        if (sales.containsKey(productId)) {
+            throw new APIException("Product " + productId + " is already on flash sale");
+        }
+        Sale sale = transactionTemplate.execute(status -> {
+            // lock the row, so no database reservation slips in between the read and the takeover:
+            // orders that reserved from the row have committed by now. The marker is taken under the
+            // same lock: the lines of every order that reserved from the row got their ids before
+            // reserving, so all of them are below it
+            Sale snapshot = jdbcTemplate.query("SELECT quantity, product_name FROM products WHERE product_id = ? FOR UPDATE",
+                    rs -> rs.next() ? new Sale(productId, rs.getString("product_name"), rs.getInt("quantity"), 0,
+                            TimeOrderedIdGenerator.nextId(), stripes) : null,
+                    productId);
+            if (snapshot == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            if (flashSaleRepository.existsById(productId)) {
+                throw new APIException("Product " + productId + " is already on flash sale");
+            }
+            flashSaleRepository.save(new FlashSale(productId, snapshot.startMarker, 0, false, Instant.now()));
+            return snapshot;
+        });
+        sales.put(productId, sale);
+        logger.info("Flash sale started for product {} with {} units", productId, sale.stock.available());
+        return stats(sale);
+    }
+
+    /**
+     * Hands the product's stock back to its row. Orders for the product are refused until the
+     * units of the orders still in progress have been written.
+     */
+    public FlashSaleStats endSale(Long productId) {
+        Sale sale = sales.get(productId);
+        if (sale == null) {
+            throw new ResourceNotFoundException("Flash sale", "productId", productId);
+        }
+        sale.closed = true;
+        transactionTemplate.executeWithoutResult(status -> flashSaleRepository.markClosed(productId));
+        flush();
+        logger.info("Flash sale ended for product {}", productId);
+        return stats(sale);
+    }
+
+    /**
+     * Takes the products on flash sale out of their counters and returns the quantities of the
+     * other products, which still have to be reserved in the database.
+     * <p>
+     * All or nothing: if one product is short, whatever this call took is given back. Units are
+     * counted as sold when the current transaction commits and given back if it does not; without
+     * a transaction they are sold right away.
+     * <p>
+     * {@code firstOrderItemId} is the lowest id of the order lines the units are for. A sale refuses
+     * lines older than its start marker: recovery would not count them. Such an order started
+     * before the sale and succeeds when placed again.
+     */
+    public Map<Long, Integer> reserve(Map<Long, Integer> quantities, long firstOrderItemId) {
+        if (sales.isEmpty()) {
+            return quantities;
+        }
+        Map<Long, Integer> fromDatabase = new HashMap<>();
+        Map<Sale, Integer> taken = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Sale sale = sales.get(entry.getKey());
+            if (sale == null) {
+                fromDatabase.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            int quantity = entry.getValue();
+            String shortage = firstOrderItemId < sale.startMarker
+                    ? "The flash sale of product " + sale.productId + " has just started, please try again"
+                    : sale.take(quantity);
+            if (shortage != null) {
+                taken.forEach(Sale::giveBack);
+                throw new APIException(shortage);
+            }
+            taken.put(sale, quantity);
+        }
+        if (taken.isEmpty()) {
+            return fromDatabase;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        taken.forEach(Sale::sold);
+                    } else {
+                        taken.forEach(Sale::giveBack);
+                    }
+                }
+            });
+        } else {
+            taken.forEach(Sale::sold);
+        }
+        return fromDatabase;
+    }
+
+    /**
+     * Gives back units of products on flash sale that were reserved outside a transaction.
+     */
+    public void release(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            Sale sale = sales.get(productId);
+            if (sale != null) {
+                sale.unsold(quantity);
+            }
+        });
+    }
+
+    /**
+     * Units left for sale, or empty if the product is not on flash sale.
+     */
+    public OptionalLong available(Long productId) {
+        Sale sale = sales.get(productId);
+        return sale == null ? OptionalLong.empty() : OptionalLong.of(sale.stock.available());
+    }
+
+    public List<FlashSaleStats> stats() {
+        return sales.values().stream().map(this::stats).toList();
+    }
+
+    /**
+     * Writes the units sold since the last flush to the product rows in one batch, then drops
+     * ended sales that have nothing left to write.
+     */
+    public synchronized void flush() {
+        Map<Sale, Long> batch = new HashMap<>();
+        for (Sale sale : sales.values()) {
+            long units = sale.unflushed.sumThenReset();
+            if (units != 0) {
+                batch.put(sale, units);
+            }
+        }
+        if (!batch.isEmpty()) {
+            List<Object[]> args = batch.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getValue(), entry.getKey().productId})
+                    .toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(DECREMENT, args);
+                    jdbcTemplate.batchUpdate(ADD_FLUSHED, args);
+                });
+            } catch (RuntimeException e) {
+                // written next time
+                batch.forEach((sale, units) -> sale.unflushed.add(units));
+                throw e;
+            }
+            batch.forEach((sale, units) -> sale.flushedQuantity += units);
+        }
+
+        for (Sale sale : sales.values()) {
+            // in-flight first: a finishing order counts its units as unflushed before it leaves
+            if (sale.closed && sale.inFlight.get() == 0 && sale.unflushed.sum() == 0) {
+                transactionTemplate.executeWithoutResult(status -> flashSaleRepository.deleteById(sale.productId));
+                sales.remove(sale.productId, sale);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Could not write flash sale stock, retrying in {} ms", flushIntervalMs, e);
+        }
+    }
+
+    /**
+     * Applies the units of order lines committed since each sale's last flush, finishes ended
+     * sales and reloads the open ones.
+     */
+    private void recover() {
+        for (FlashSale flashSale : flashSaleRepository.findAll()) {
+            Long productId = flashSale.getProductId();
+            Sale sale = transactionTemplate.execute(status -> {
+                long sold = orderItemRepository.sumQuantityByProductIdAfter(productId, flashSale.getStartMarker());
+                long unflushed = sold - flashSale.getFlushedQuantity();
+                if (unflushed > 0) {
+                    jdbcTemplate.update(DECREMENT, unflushed, productId);
+                    jdbcTemplate.update(ADD_FLUSHED, unflushed, productId);
+                    logger.info("Applied {} unwritten flash sale units to product {}", unflushed, productId);
+                }
+                long flushed = flashSale.getFlushedQuantity() + Math.max(unflushed, 0);
+                Sale resumed = jdbcTemplate.query("SELECT quantity, product_name FROM products WHERE product_id = ? FOR UPDATE",
+                        rs -> rs.next() ? new Sale(productId, rs.getString("product_name"), rs.getInt("quantity"), flushed,
+                                flashSale.getStartMarker(), stripes) : null,
+                        productId);
+                if (flashSale.isClosed() || resumed == null) {
+                    flashSaleRepository.deleteById(productId);
+                    return null;
+                }
+                return resumed;
+            });
+            if (sale != null) {
+                sales.put(productId, sale);
+                logger.info("Flash sale of product {} resumed with {} units", productId, sale.stock.available());
+            }
+        }
+    }
+
+    private FlashSaleStats stats(Sale sale) {
+        return new FlashSaleStats(sale.productId, sale.stock.available(), sale.unflushed.sum(),
+                sale.inFlight.get(), sale.flushedQuantity, sale.closed);
+    }
+
+    private static final class Sale {
+        private final Long productId;
+        // read when the sale starts, so a sold-out reply needs no query
+        private final String productName;
+        // order lines with lower ids are not counted on recovery
+        private final long startMarker;
+        private final StripedStockCounter stock;
+        // units of committed orders not yet written to the product row
+        private final LongAdder unflushed = new LongAdder();
+        // reservations whose transaction has not finished yet
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long flushedQuantity;
+        private volatile boolean closed;
+
+        private Sale(Long productId, String productName, long stock, long flushedQuantity, long startMarker, int stripes) {
+            this.productId = productId;
+            this.productName = productName;
+            this.startMarker = startMarker;
+            this.stock = new StripedStockCounter(stock, stripes);
+            this.flushedQuantity = flushedQuantity;
+        }
+
+        /**
+         * Returns null if granted, otherwise why not.
+         */
+        private String take(int quantity) {
+            // counted before the closed check, so endSale never misses a reservation in progress
+            inFlight.incrementAndGet();
+            if (closed) {
+                inFlight.decrementAndGet();
+                return "The flash sale of product " + productId + " is ending, please try again";
+            }
+            if (!stock.tryTake(quantity)) {
+                inFlight.decrementAndGet();
+                return "Not enough stock for " + productName + " (available " + stock.available() + ", requested " + quantity + ")";
+            }
+            return null;
+        }
+
+        private void sold(int quantity) {
+            unflushed.add(quantity);
+            inFlight.decrementAndGet();
+        }
+
+        private void giveBack(int quantity) {
+            stock.put(quantity);
+            inFlight.decrementAndGet();
+        }
+
+        private void unsold(int quantity) {
+            unflushed.add(-quantity);
+            stock.put(quantity);
+        }
+    }
+}
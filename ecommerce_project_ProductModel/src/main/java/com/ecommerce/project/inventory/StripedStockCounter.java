@@ -0,0 +1,83 @@
+package com.ecommerce.project.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free stock counter split over several stripes, so concurrent takers mostly update
+ * different cache lines instead of all spinning on one value.
+ * <p>
+ * A thread takes from its home stripe first and moves on to the others only when that one runs
+ * dry, so a take never grants more than the total stock. Near the last units a take can fail
+ * while a concurrent failed take is still handing its units back; it is retried while the
+ * total says the stock is there.
+ */
+class StripedStockCounter {
+
+    // each stripe sits on its own 64 byte cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedStockCounter(long stock, int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, stock / stripes + (i < stock % stripes ? 1 : 0));
+        }
+    }
+
+    boolean tryTake(int quantity) {
+        while (!take(quantity)) {
+            if (available() < quantity) {
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+    void put(int quantity) {
+        cells.getAndAdd(home() * PADDING, quantity);
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private boolean take(int quantity) {
+        int home = home();
+        long remaining = quantity;
+        for (int i = 0; i < stripes && remaining > 0; i++) {
+            remaining -= takeUpTo((home + i) % stripes, remaining);
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        // not enough in total: hand back what was taken
+        cells.getAndAdd(home * PADDING, quantity - remaining);
+        return false;
+    }
+
+    private long takeUpTo(int stripe, long wanted) {
+        int index = stripe * PADDING;
+        long current;
+        long taken;
+        do {
+            current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            taken = Math.min(current, wanted);
+        } while (!cells.compareAndSet(index, current, current - taken));
+        return taken;
+    }
+
+    private int home() {
+        return (int) (Thread.currentThread().threadId() % stripes);
+    }
+}
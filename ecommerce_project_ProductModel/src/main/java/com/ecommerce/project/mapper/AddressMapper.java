@@ -0,0 +1,15 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.payload.AddressDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface AddressMapper {
+
+    AddressDTO toDto(Address address);
+
+    @Mapping(target = "user", ignore = true)
+    Address toEntity(AddressDTO addressDTO);
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartDTO;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = ProductMapper.class, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface CartMapper {
+
+    //each cart item becomes a ProductDTO carrying the cart quantity (ProductMapper.toCartProductDtos)
+    @Mapping(target = "products", source = "cartItems")
+    CartDTO toDto(Cart cart);
+
+    //cart totals only, for callers that load the products with a projection query
+    @Mapping(target = "products", ignore = true)
+    CartDTO toSummaryDto(Cart cart);
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.CategoryDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface CategoryMapper {
+
+    CategoryDTO toDto(Category category);
+
+    @Mapping(target = "products", ignore = true)
+    Category toEntity(CategoryDTO categoryDTO);
+}
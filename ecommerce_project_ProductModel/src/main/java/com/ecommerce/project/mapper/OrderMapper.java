@@ -0,0 +1,40 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.ArchivedOrder;
+import com.ecommerce.project.model.ArchivedOrderItem;
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.PaymentDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = ProductMapper.class, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface OrderMapper {
+
+    @Mapping(target = "addressId", source = "address.addressId")
+    OrderDTO toDto(Order order);
+
+    @Mapping(target = "orderedProductPrice", source = "orderProductPrice")
+    OrderItemDTO toDto(OrderItem orderItem);
+
+    PaymentDTO toDto(Payment payment);
+
+    //archived orders: the payment is folded into the order row, items are mapped separately
+    @Mapping(target = "orderItems", ignore = true)
+    @Mapping(target = "payment", ignore = true)
+    OrderDTO toDto(ArchivedOrder order);
+
+    PaymentDTO toPaymentDto(ArchivedOrder order);
+
+    @Mapping(target = "orderItemId", source = "orderItem.orderItemId")
+    @Mapping(target = "product", source = "product")
+    @Mapping(target = "quantity", source = "orderItem.quantity")
+    @Mapping(target = "discount", source = "orderItem.discount")
+    @Mapping(target = "orderedProductPrice", source = "orderItem.orderProductPrice")
+    OrderItemDTO toDto(ArchivedOrderItem orderItem, ProductDTO product);
+}
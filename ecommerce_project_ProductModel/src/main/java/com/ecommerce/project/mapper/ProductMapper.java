@@ -0,0 +1,33 @@
+package com.ecommerce.project.mapper;
+
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ProductMapper {
+
+    ProductDTO toDto(Product product);
+
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "cartItems", ignore = true)
+    Product toEntity(ProductDTO productDTO);
+
+    /**
+     * Maps the product of a cart line. The quantity is the quantity in the cart, not the product stock.
+     */
+    default ProductDTO toCartProductDto(CartItem cartItem) {
+        ProductDTO productDTO = toDto(cartItem.getProduct());
+        productDTO.setQuantity(cartItem.getQuantity());
+        return productDTO;
+    }
+
+    default List<ProductDTO> toCartProductDtos(List<CartItem> cartItems) {
+        return cartItems.stream().map(this::toCartProductDto).toList();
+    }
+}
@@ -49,7 +49,7 @@ public class Address {
     private String pincode;
 
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -0,0 +1,53 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * An order moved out of {@code orders} by the order archiver, with its payment folded into the
+ * same row. Ids are kept, and no foreign keys point in or out, so archived rows never slow down
+ * writes to the live tables.
+ */
+@Entity
+//same listings as the live orders table
+@Table(name = "archived_orders", indexes = {
+        @Index(name = "ix_archived_orders_email_date", columnList = "email, order_date, order_id"),
+        @Index(name = "ix_archived_orders_status_date", columnList = "order_status, order_date, order_id"),
+        @Index(name = "ix_archived_orders_date", columnList = "order_date, order_id")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedOrder {
+
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private String email;
+
+    private LocalDate orderDate;
+
+    private Double totalAmount;
+
+    private String orderStatus;
+
+    private Long addressId;
+
+    private Long paymentId;
+
+    private String paymentMethod;
+
+    private String pgPaymentId;
+
+    private String pgStatus;
+
+    private String pgResponseMessage;
+
+    private String pgName;
+}
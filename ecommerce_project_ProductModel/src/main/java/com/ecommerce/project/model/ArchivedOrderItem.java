@@ -0,0 +1,33 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A line of an {@link ArchivedOrder}.
+ */
+@Entity
+@Table(name = "archived_order_items", indexes = {
+        @Index(name = "ix_archived_order_items_order", columnList = "order_id")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedOrderItem {
+
+    @Id
+    private Long orderItemId;
+
+    private Long orderId;
+
+    private Long productId;
+
+    private Integer quantity;
+
+    private Double discount;
+
+    private double orderProductPrice;
+}
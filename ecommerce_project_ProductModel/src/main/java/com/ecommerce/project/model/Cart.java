@@ -13,6 +13,9 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@NamedEntityGraph(name = "Cart.itemsWithProducts",
+        attributeNodes = @NamedAttributeNode(value = "cartItems", subgraph = "cartItem.product"),
+        subgraphs = @NamedSubgraph(name = "cartItem.product", attributeNodes = @NamedAttributeNode("product")))
 @Table(name = "carts")
 public class Cart {
 
@@ -22,7 +25,7 @@ public class Cart {
 
     private Double totalPrice=0.0;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="user_id")
     private User user;
 
@@ -23,6 +23,7 @@ public class Category {
 
     @NotBlank(message = "category name cannot be blank!!")
     @Size(min = 5,message = "Category should have least 5 characters ")
+    @Column(nullable = false)
     public String categoryName;
 
 
@@ -0,0 +1,60 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Journal entry of an order placed through the asynchronous checkout queue.
+ * <p>
+ * Written before the request is queued, so requests still queued or in progress when the
+ * application stops are picked up again on the next start. {@code activeEmail} holds the email
+ * only while the request is unfinished; its unique index is what keeps a user down to one
+ * order being placed at a time, however many submissions race for it.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "checkout_requests", indexes = {
+        @Index(name = "ux_checkout_requests_reference", columnList = "reference", unique = true),
+        @Index(name = "ix_checkout_requests_status", columnList = "status"),
+        @Index(name = "ix_checkout_requests_email_status", columnList = "email, status"),
+        @Index(name = "ux_checkout_requests_active_email", columnList = "active_email", unique = true)
+})
+public class CheckoutRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long checkoutRequestId;
+
+    @Column(nullable = false, length = 36)
+    private String reference;
+
+    @Column(nullable = false)
+    private String email;
+
+    //set while QUEUED or PROCESSING, null once finished
+    private String activeEmail;
+
+    private Long addressId;
+    private String paymentMethod;
+    private String pgName;
+    private String pgPaymentId;
+    private String pgStatus;
+    private String pgResponseMessage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CheckoutStatus status;
+
+    private Long orderId;
+    private String failureReason;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+}
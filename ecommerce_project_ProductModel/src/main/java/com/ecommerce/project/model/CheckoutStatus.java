@@ -0,0 +1,10 @@
+package com.ecommerce.project.model;
+
+public enum CheckoutStatus {
+
+    QUEUED,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Orders, units and revenue of one day, kept up to date as orders are placed.
+ */
+@Entity
+@Table(name = "daily_sales")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySales {
+
+    @Id
+    private LocalDate saleDate;
+
+    private long orders;
+
+    private long units;
+
+    private double revenue;
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Units and revenue of one day for one product, category or seller ({@code Product.user}),
+ * kept up to date as orders are placed.
+ */
+@Entity
+@IdClass(DailySalesBreakdown.Key.class)
+//reports read one breakdown over a date range
+@Table(name = "daily_sales_breakdown", indexes = {
+        @Index(name = "ix_daily_sales_breakdown_date", columnList = "breakdown, sale_date, breakdown_id")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySalesBreakdown {
+
+    public static final String PRODUCT = "PRODUCT";
+    public static final String CATEGORY = "CATEGORY";
+    public static final String SELLER = "SELLER";
+
+    // breakdownId of products without a seller
+    public static final long NO_SELLER = 0;
+
+    @Id
+    @Column(length = 10)
+    private String breakdown;
+
+    @Id
+    private LocalDate saleDate;
+
+    // productId, categoryId or the seller's userId
+    @Id
+    private Long breakdownId;
+
+    private long units;
+
+    private double revenue;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String breakdown;
+        private LocalDate saleDate;
+        private Long breakdownId;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A product whose stock is currently held in memory by the flash-sale inventory.
+ * <p>
+ * {@code startMarker} is an order item id handed out when the sale started: every order line of
+ * the sale has a larger id. {@code flushedQuantity} is how much of the sale's sold stock has been
+ * written to {@code products.quantity} so far, so a restart can apply the rest from the order lines.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "flash_sales")
+public class FlashSale {
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long startMarker;
+
+    @Column(nullable = false)
+    private long flushedQuantity;
+
+    private boolean closed;
+
+    private Instant startedAt;
+}
@@ -12,14 +12,26 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@NamedEntityGraph(name = "Order.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "orderItems", subgraph = "orderItem.product"),
+                @NamedAttributeNode("payment"),
+                @NamedAttributeNode("address")
+        },
+        subgraphs = @NamedSubgraph(name = "orderItem.product", attributeNodes = @NamedAttributeNode("product")))
+//order listings are keyset-paged newest first, by user, by status or across all orders
+@Table(name = "orders", indexes = {
+        @Index(name = "ix_orders_email_date", columnList = "email, order_date, order_id"),
+        @Index(name = "ix_orders_status_date", columnList = "order_status, order_date, order_id"),
+        @Index(name = "ix_orders_date", columnList = "order_date, order_id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long orderId;
 
     @Email
@@ -35,11 +47,11 @@ public class Order {
 
     private String orderStatus;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "address_id")
     private Address address;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_id")
     private Payment payment;
 
@@ -0,0 +1,55 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Something that happened to an aggregate (an order, a product), written in the same transaction
+ * as the change itself and delivered to its handlers afterwards by the outbox relay.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "ix_outbox_events_dead_id", columnList = "dead, outbox_event_id"),
+        @Index(name = "ix_outbox_events_dead_next_attempt", columnList = "dead, next_attempt_at")
+})
+public class OutboxEvent {
+
+    public static final String ORDER_PLACED = "OrderPlaced";
+
+    @Id
+    @TimeOrderedId
+    private Long outboxEventId;
+
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(nullable = false, length = 64)
+    private String aggregateId;
+
+    @Column(nullable = false, length = 100)
+    private String eventType;
+
+    // JSON
+    @Lob
+    private String payload;
+
+    private Instant createdAt;
+
+    private int attempts;
+
+    private Instant nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    // gave up after too many attempts; kept for inspection, no longer delivered
+    private boolean dead;
+}
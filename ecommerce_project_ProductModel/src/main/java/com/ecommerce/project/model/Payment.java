@@ -15,7 +15,7 @@ import lombok.NoArgsConstructor;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long paymentId;
 
     @OneToOne(mappedBy = "payment" ,cascade = {CascadeType.PERSIST,CascadeType.MERGE})
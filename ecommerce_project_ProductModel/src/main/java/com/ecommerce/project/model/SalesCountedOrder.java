@@ -0,0 +1,24 @@
+package com.ecommerce.project.model;
+
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A recent order already added to the sales aggregates, so a redelivered {@code OrderPlaced}
+ * event is not counted twice.
+ */
+@Entity
+@Table(name = "sales_counted_orders")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesCountedOrder {
+
+    @Id
+    private Long orderId;
+}
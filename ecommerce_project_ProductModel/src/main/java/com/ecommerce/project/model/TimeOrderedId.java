@@ -0,0 +1,19 @@
+package com.ecommerce.project.model;
+
+import com.ecommerce.project.util.TimeOrderedIdGenerator;
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns the id in the application before the insert (see {@link TimeOrderedIdGenerator}),
+ * so Hibernate can batch the inserts of the entity instead of running one per row.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -15,10 +16,11 @@ import java.util.Set;
 @Entity
 @Data
 @NoArgsConstructor
+@NamedEntityGraph(name = "User.withRoles", attributeNodes = @NamedAttributeNode("roles"))
 @Table(name = "users",uniqueConstraints = {
         @UniqueConstraint(columnNames = "username"),
         @UniqueConstraint(columnNames = "email")
-})
+}, indexes = @Index(name = "ix_users_tokens_revoked_at", columnList = "tokens_revoked_at"))
 public class User {
 
     @Id
@@ -42,6 +44,13 @@ public class User {
     @Column(name = "password")
     private String password;
 
+    //carried by every token; bumped to reject the tokens issued so far (e.g. after a role is revoked)
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    @Column(name = "tokens_revoked_at")
+    private Instant tokensRevokedAt;
+
 
     public User( String userName, String email, String password) {
         this.userName = userName;
@@ -51,7 +60,7 @@ public class User {
 
     @Getter
     @Setter
-    @ManyToMany(cascade = {CascadeType.PERSIST,CascadeType.MERGE},fetch = FetchType.EAGER)
+    @ManyToMany(cascade = {CascadeType.PERSIST,CascadeType.MERGE},fetch = FetchType.LAZY)
     @JoinTable(name = "user_role",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -0,0 +1,23 @@
+package com.ecommerce.project.outbox;
+
+import com.ecommerce.project.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Consumer of one type of outbox event. Every {@code @Component} implementing it is picked up by
+ * the {@link OutboxRelay}.
+ * <p>
+ * Delivery is at least once: an event can arrive again after a failure or a restart, so handling
+ * must be idempotent. Events of the same aggregate arrive in the order they were published.
+ */
+public interface OutboxEventHandler {
+
+    String eventType();
+
+    /**
+     * Handles a run of consecutive events of this type, in publication order. If it throws, every
+     * event of the run is retried later.
+     */
+    void handle(List<OutboxEvent> events) throws Exception;
+}
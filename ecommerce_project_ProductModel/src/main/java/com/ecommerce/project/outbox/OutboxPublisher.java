@@ -0,0 +1,52 @@
+package com.ecommerce.project.outbox;
+
+import com.ecommerce.project.model.OutboxEvent;
+import com.ecommerce.project.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+/**
+ * Records outbox events in the caller's transaction, so an event exists if and only if the change
+ * it describes committed. Delivery happens later, off the request thread, in {@link OutboxRelay}.
+ */
+@Component
+public class OutboxPublisher {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void publish(String aggregateType, Object aggregateId, String eventType, Object payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be published in the transaction of the change they describe");
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " event", e);
+        }
+        // ids are assigned up front, so the events of one transaction are inserted in one batch
+        outboxEventRepository.save(new OutboxEvent(null, aggregateType, String.valueOf(aggregateId), eventType,
+                json, Instant.now(), 0, null, null, false));
+
+        // deliver right after the commit instead of waiting for the next poll
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package com.ecommerce.project.outbox;
+
+import com.ecommerce.project.model.OutboxEvent;
+import com.ecommerce.project.payload.OutboxStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox events to their {@link OutboxEventHandler}s from a single background thread.
+ * <p>
+ * The relay pages through the pending events oldest first, hands each run of consecutive events of
+ * one type to the handlers, and deletes the delivered events afterwards, so a crash in between
+ * delivers them again (at least once). When a run fails, its events are retried with exponential
+ * backoff and every later event of the same aggregates waits for them, which keeps each aggregate
+ * in order. Events waiting for their retry are left out of the pages by the query, and their
+ * aggregates are looked up once per poll; the relay pages on past the events held behind them, so
+ * other aggregates are not held up. After
+ * {@code maxAttempts} an event is marked dead and no longer holds its aggregate up.
+ * Polls run every {@code pollIntervalMs}, and right after a transaction that published events commits.
+ * The relay assumes a single instance drains the table.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+
+    private static final String SELECT_PENDING =
+            "SELECT outbox_event_id, aggregate_type, aggregate_id, event_type, payload, created_at, attempts, next_attempt_at " +
+            "FROM outbox_events WHERE dead = false AND (next_attempt_at IS NULL OR next_attempt_at <= ?) " +
+            "AND outbox_event_id > ? ORDER BY outbox_event_id LIMIT ?";
+
+    private static final String SELECT_WAITING_AGGREGATES =
+            "SELECT DISTINCT aggregate_type, aggregate_id FROM outbox_events WHERE dead = false AND next_attempt_at > ?";
+
+    private static final String MARK_FAILED =
+            "UPDATE outbox_events SET attempts = ?, next_attempt_at = ?, last_error = ?, dead = ? WHERE outbox_event_id = ?";
+
+    private static final RowMapper<OutboxEvent> EVENT = (rs, rowNum) -> {
+        Timestamp nextAttemptAt = rs.getTimestamp("next_attempt_at");
+        return new OutboxEvent(rs.getLong("outbox_event_id"), rs.getString("aggregate_type"), rs.getString("aggregate_id"),
+                rs.getString("event_type"), rs.getString("payload"), rs.getTimestamp("created_at").toInstant(),
+                rs.getInt("attempts"), nextAttemptAt == null ? null : nextAttemptAt.toInstant(), null, false);
+    };
+
+    @Value("${project.outbox.pollIntervalMs:500}")
+    private long pollIntervalMs;
+
+    @Value("${project.outbox.batchSize:100}")
+    private int batchSize;
+
+    @Value("${project.outbox.maxAttempts:10}")
+    private int maxAttempts;
+
+    @Value("${project.outbox.retryDelayMs:1000}")
+    private long retryDelayMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private List<OutboxEventHandler> handlers;
+
+    private final AtomicBoolean wakeUpQueued = new AtomicBoolean();
+    private final AtomicLong deliveredEvents = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+
+    private Map<String, List<OutboxEventHandler>> handlersByType;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        handlersByType = new HashMap<>();
+        handlers.forEach(handler -> handlersByType.computeIfAbsent(handler.eventType(), k -> new ArrayList<>()).add(handler));
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::relayQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Polls right away instead of waiting for the next interval.
+     */
+    public void wakeUp() {
+        if (wakeUpQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::relayQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down: the events stay in the table
+            }
+        }
+    }
+
+    public OutboxStats stats() {
+        long[] pendingAndDead = new long[2];
+        Instant[] oldest = new Instant[1];
+        jdbcTemplate.query("SELECT dead, COUNT(*) AS events, MIN(created_at) AS oldest FROM outbox_events GROUP BY dead", rs -> {
+            if (rs.getBoolean("dead")) {
+                pendingAndDead[1] = rs.getLong("events");
+            } else {
+                pendingAndDead[0] = rs.getLong("events");
+                oldest[0] = rs.getTimestamp("oldest").toInstant();
+            }
+        });
+        long oldestAge = oldest[0] == null ? 0 : Math.max(0, Duration.between(oldest[0], Instant.now()).toMillis());
+        return new OutboxStats(pendingAndDead[0], pendingAndDead[1], oldestAge, lastLagMs.get(), maxLagMs.get(),
+                deliveredEvents.get(), failedAttempts.get());
+    }
+
+    private void relayQuietly() {
+        wakeUpQueued.set(false);
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay run failed, retrying in {} ms", pollIntervalMs, e);
+        }
+    }
+
+    private void relay() {
+        Timestamp now = Timestamp.from(Instant.now());
+        // aggregates with an event waiting for its retry: their later events wait too. Aggregates
+        // blocked on an earlier page stay blocked on the later ones
+        Set<String> blockedAggregates = new HashSet<>(jdbcTemplate.query(SELECT_WAITING_AGGREGATES,
+                (rs, rowNum) -> rs.getString("aggregate_type") + ':' + rs.getString("aggregate_id"), now));
+        long after = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = jdbcTemplate.query(SELECT_PENDING, EVENT, now, after, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            deliver(batch, blockedAggregates);
+            after = batch.get(batch.size() - 1).getOutboxEventId();
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Delivers one batch, skipping and adding to the aggregates that have to wait.
+     */
+    private void deliver(List<OutboxEvent> batch, Set<String> blockedAggregates) {
+        Instant now = Instant.now();
+        List<Long> delivered = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+
+        List<OutboxEvent> run = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            // a run ends where the event type changes; it is delivered before looking further,
+            // so a failure blocks the later events of its aggregates
+            if (!run.isEmpty() && !run.get(0).getEventType().equals(event.getEventType())) {
+                deliverRun(run, now, blockedAggregates, delivered, failed);
+                run = new ArrayList<>();
+            }
+            if (blockedAggregates.contains(aggregateKey(event))) {
+                continue;
+            }
+            run.add(event);
+        }
+        if (!run.isEmpty()) {
+            deliverRun(run, now, blockedAggregates, delivered, failed);
+        }
+
+        if (!failed.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_FAILED, failed);
+        }
+        if (!delivered.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM outbox_events WHERE outbox_event_id IN (" +
+                    String.join(", ", Collections.nCopies(delivered.size(), "?")) + ")", delivered.toArray());
+        }
+    }
+
+    private void deliverRun(List<OutboxEvent> run, Instant now, Set<String> blockedAggregates,
+                            List<Long> delivered, List<Object[]> failed) {
+        String eventType = run.get(0).getEventType();
+        try {
+            for (OutboxEventHandler handler : handlersByType.getOrDefault(eventType, List.of())) {
+                handler.handle(run);
+            }
+        } catch (Exception e) {
+            logger.warn("Delivering {} {} events failed", run.size(), eventType, e);
+            for (OutboxEvent event : run) {
+                blockedAggregates.add(aggregateKey(event));
+                failed.add(failure(event, now, e));
+            }
+            failedAttempts.addAndGet(run.size());
+            return;
+        }
+        Instant deliveredAt = Instant.now();
+        for (OutboxEvent event : run) {
+            delivered.add(event.getOutboxEventId());
+            long lag = Duration.between(event.getCreatedAt(), deliveredAt).toMillis();
+            lastLagMs.set(lag);
+            maxLagMs.accumulateAndGet(lag, Math::max);
+        }
+        deliveredEvents.addAndGet(run.size());
+    }
+
+    private Object[] failure(OutboxEvent event, Instant now, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        boolean dead = attempts >= maxAttempts;
+        if (dead) {
+            logger.error("Giving up on outbox event {} ({} of {} {}) after {} attempts", event.getOutboxEventId(),
+                    event.getEventType(), event.getAggregateType(), event.getAggregateId(), attempts);
+        }
+        // retryDelayMs, then doubling up to MAX_RETRY_DELAY
+        long delay = Math.min(retryDelayMs << Math.min(attempts - 1, 20), MAX_RETRY_DELAY.toMillis());
+        String error = String.valueOf(e.getMessage());
+        return new Object[]{attempts, Timestamp.from(now.plusMillis(delay)),
+                error.length() > 500 ? error.substring(0, 500) : error, dead, event.getOutboxEventId()};
+    }
+
+    private static String aggregateKey(OutboxEvent event) {
+        return event.getAggregateType() + ':' + event.getAggregateId();
+    }
+}
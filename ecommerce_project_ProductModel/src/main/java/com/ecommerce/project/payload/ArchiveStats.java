@@ -0,0 +1,20 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveStats {
+    private boolean running;
+    private LocalDate cutoffDate;
+    private Instant lastRunAt;
+    private long lastRunOrders;
+    private long archivedOrders;
+    private long failedRuns;
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private int entries;
+    private long weight;
+    private long maxWeight;
+}
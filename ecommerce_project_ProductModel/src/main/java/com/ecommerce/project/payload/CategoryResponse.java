@@ -16,4 +16,6 @@ public class CategoryResponse {
     private Long totalItems;
     private Integer totalPages;
     private boolean lastPage;
+    //opaque token for the next page in cursor listings (null for offset listings or the last page)
+    private String nextCursor;
 }
@@ -0,0 +1,16 @@
+package com.ecommerce.project.payload;
+
+import com.ecommerce.project.model.CheckoutStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutStatusDTO {
+    private String reference;
+    private CheckoutStatus status;
+    private Long orderId;
+    private String message;
+}
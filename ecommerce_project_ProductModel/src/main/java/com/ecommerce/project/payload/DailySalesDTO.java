@@ -0,0 +1,17 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesDTO {
+    private LocalDate saleDate;
+    private long orders;
+    private long units;
+    private double revenue;
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleStats {
+    private Long productId;
+    private long available;
+    private long unflushed;
+    private int inFlight;
+    private long flushedQuantity;
+    private boolean closed;
+}
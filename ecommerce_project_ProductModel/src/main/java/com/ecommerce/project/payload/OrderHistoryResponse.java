@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryResponse {
+
+    private List<OrderSummaryDTO>content;
+    private Integer pageSize;
+    private boolean lastPage;
+    //opaque token for the next page (null on the last page)
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+//one row of an order listing: the order columns only, no items, payment or address
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long orderId;
+    private String email;
+    private LocalDate orderDate;
+    private Double totalAmount;
+    private String orderStatus;
+}
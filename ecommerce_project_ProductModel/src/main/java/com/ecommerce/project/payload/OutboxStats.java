@@ -0,0 +1,18 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStats {
+    private long pendingEvents;
+    private long deadEvents;
+    private long oldestPendingAgeMs;
+    private long lastLagMs;
+    private long maxLagMs;
+    private long deliveredEvents;
+    private long failedAttempts;
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordHashingStats {
+    private int workers;
+    private int queueCapacity;
+    private int queueDepth;
+    private int maxQueueDepth;
+    private int activeHashes;
+    private long completedHashes;
+    private long rejectedHashes;
+    private long rehashedPasswords;
+}
@@ -18,4 +18,6 @@ public class ProductResponse {
     private Long totalItems;
     private Integer totalPages;
     private boolean lastPage;
+    //opaque token for the next page in cursor listings (null for offset listings or the last page)
+    private String nextCursor;
 }
@@ -0,0 +1,21 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepricingStats {
+    private int pendingProducts;
+    private int runningProducts;
+    private long oldestPendingLagMs;
+    private long lastLagMs;
+    private long maxLagMs;
+    private long submittedChanges;
+    private long coalescedChanges;
+    private long completedRuns;
+    private long repricedCarts;
+    private long failures;
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//sales of one product, category or seller over a date range
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRankDTO {
+    private Long id;
+    private String name;
+    private Long units;
+    private Double revenue;
+}
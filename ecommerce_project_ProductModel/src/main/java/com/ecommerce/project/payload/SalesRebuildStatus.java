@@ -0,0 +1,21 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRebuildStatus {
+    private boolean running;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int totalChunks;
+    private int completedChunks;
+    private long orders;
+    private long orderLines;
+    private String error;
+}
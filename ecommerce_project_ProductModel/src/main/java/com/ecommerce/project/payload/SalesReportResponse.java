@@ -0,0 +1,21 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+//totals of the date range and one row per day that had sales
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportResponse {
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private long orders;
+    private long units;
+    private double revenue;
+    private List<DailySalesDTO> days;
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.project.pricing;
+
+import com.ecommerce.project.payload.RepricingStats;
+import com.ecommerce.project.repository.CartItemRepository;
+import com.ecommerce.project.service.CartService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves carts to a product's new price in the background, so a price update does not wait on
+ * every cart that holds the product.
+ * <p>
+ * {@code ProductServiceImpl.updateProduct} only records which product changed. Once its transaction
+ * commits, a worker reprices the carts in bounded batches, each batch in its own short transaction.
+ * A change to a product that is already waiting is folded into the pending run. Every batch reads the
+ * product's current price, so only the latest price is applied. {@code CartServiceImpl.getCart}
+ * reprices a cart on read if the worker has not reached it yet. Changes lost on shutdown are found
+ * again from the database at the next startup.
+ */
+@Component
+public class CartRepricingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartRepricingPipeline.class);
+
+    @Value("${project.repricing.batchSize:500}")
+    private int batchSize;
+
+    @Value("${project.repricing.workers:2}")
+    private int workers;
+
+    @Value("${project.repricing.retryDelayMs:5000}")
+    private long retryDelayMs;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    // productId -> System.nanoTime() of its oldest price change not yet applied to the carts
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong submittedChanges = new AtomicLong();
+    private final AtomicLong coalescedChanges = new AtomicLong();
+    private final AtomicLong completedRuns = new AtomicLong();
+    private final AtomicLong repricedCarts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong lastLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "cart-repricing-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues every product that still has cart lines at an old price, e.g. changes that were
+     * pending when the application last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<Long> productIds = cartItemRepository.findProductIdsWithStaleCartItems();
+        productIds.forEach(this::enqueue);
+        if (!productIds.isEmpty()) {
+            logger.info("Queued cart repricing for {} products with stale cart prices", productIds.size());
+        }
+    }
+
+    /**
+     * Records a price change of the product. The carts are repriced after the current transaction
+     * commits, or right away when there is none.
+     */
+    public void priceChanged(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(productId);
+                }
+            });
+        } else {
+            enqueue(productId);
+        }
+    }
+
+    public RepricingStats stats() {
+        long now = System.nanoTime();
+        long oldest = pending.values().stream().mapToLong(Long::longValue).min().orElse(now);
+        return new RepricingStats(pending.size(), running.get(),
+                TimeUnit.NANOSECONDS.toMillis(now - oldest),
+                TimeUnit.NANOSECONDS.toMillis(lastLagNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get()),
+                submittedChanges.get(), coalescedChanges.get(), completedRuns.get(),
+                repricedCarts.get(), failures.get());
+    }
+
+    private void enqueue(Long productId) {
+        submittedChanges.incrementAndGet();
+        if (pending.putIfAbsent(productId, System.nanoTime()) != null) {
+            // a run for this product is already waiting and will pick up the latest price
+            coalescedChanges.incrementAndGet();
+            return;
+        }
+        try {
+            executor.execute(() -> reprice(productId));
+        } catch (RejectedExecutionException e) {
+            // shutting down: recover() finds the product again at the next startup
+            pending.remove(productId);
+        }
+    }
+
+    private void reprice(Long productId) {
+        // counted as running before it leaves the pending map, so the pipeline never looks idle mid-handover
+        running.incrementAndGet();
+        Long since = pending.remove(productId);
+        try {
+            if (since == null) {
+                return;
+            }
+            int repriced;
+            do {
+                repriced = cartService.repriceProductInCarts(productId, batchSize);
+                repricedCarts.addAndGet(repriced);
+            } while (repriced == batchSize);
+
+            long lag = System.nanoTime() - since;
+            lastLagNanos.set(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+            completedRuns.incrementAndGet();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            logger.warn("Repricing carts for product {} failed, retrying in {} ms", productId, retryDelayMs, e);
+            retry(productId, since);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private void retry(Long productId, Long since) {
+        if (pending.putIfAbsent(productId, since) != null) {
+            // a newer change already queued a run; keep the older timestamp so the lag stays honest
+            pending.merge(productId, since, Math::min);
+            return;
+        }
+        try {
+            executor.schedule(() -> reprice(productId), retryDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.remove(productId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.project.reporting;
+
+import com.ecommerce.project.model.OutboxEvent;
+import com.ecommerce.project.outbox.OutboxEventHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Adds placed orders to the {@link SalesAggregates} from the {@code OrderPlaced} outbox events.
+ * The category and seller of every product in the run are read with one query.
+ */
+@Component
+public class OrderSalesHandler implements OutboxEventHandler {
+
+    @Autowired
+    private SalesAggregates salesAggregates;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String eventType() {
+        return OutboxEvent.ORDER_PLACED;
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) throws Exception {
+        List<JsonNode> orders = new ArrayList<>();
+        Set<Long> productIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            JsonNode order = objectMapper.readTree(event.getPayload());
+            order.get("items").forEach(item -> productIds.add(item.get("productId").asLong()));
+            orders.add(order);
+        }
+
+        // productId -> {categoryId, sellerId}
+        Map<Long, Long[]> owners = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            jdbcTemplate.query("SELECT product_id, category_id, seller_id FROM products WHERE product_id IN (" +
+                            String.join(", ", Collections.nCopies(productIds.size(), "?")) + ")",
+                    (RowCallbackHandler) rs -> owners.put(rs.getLong("product_id"),
+                            new Long[]{rs.getObject("category_id", Long.class), rs.getObject("seller_id", Long.class)}),
+                    productIds.toArray());
+        }
+
+        List<SalesAggregates.SoldLine> lines = new ArrayList<>();
+        for (JsonNode order : orders) {
+            long orderId = order.get("orderId").asLong();
+            LocalDate orderDate = LocalDate.parse(order.get("orderDate").asText());
+            for (JsonNode item : order.get("items")) {
+                long productId = item.get("productId").asLong();
+                Long[] owner = owners.getOrDefault(productId, new Long[2]);
+                lines.add(new SalesAggregates.SoldLine(orderId, orderDate, productId, owner[0], owner[1],
+                        item.get("quantity").asInt(), item.get("price").asDouble()));
+            }
+        }
+        salesAggregates.add(lines);
+    }
+}
@@ -0,0 +1,453 @@
+package com.ecommerce.project.reporting;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.model.DailySalesBreakdown;
+import com.ecommerce.project.payload.SalesRebuildStatus;
+import com.ecommerce.project.util.StreamingJdbc;
+import com.ecommerce.project.util.TimeOrderedIdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sales aggregates for reporting: per day in {@code daily_sales}, and per day and product, category
+ * or seller in {@code daily_sales_breakdown}. A report over a date range reads one row per day
+ * (and per product, category or seller) instead of every order line.
+ * <p>
+ * {@link OrderSalesHandler} adds every placed order from its {@code OrderPlaced} outbox event, off
+ * the checkout path. The ids of the counted orders are stored in {@code sales_counted_orders} in the
+ * same transaction, so an event delivered twice is counted once; they are kept for
+ * {@code countedOrderRetentionHours}, long after the outbox stops redelivering.
+ * <p>
+ * {@link #rebuild()} recomputes the aggregates from the order lines, in chunks of
+ * {@code rebuildChunkDays} spread over {@code rebuildWorkers} threads, each chunk replaced in one
+ * transaction. While it runs, increments from the outbox fail at once, so the relay is never held
+ * up: their events are retried and counted after the rebuild. Before it finishes, the rebuild adds
+ * the recent orders not counted yet from the order tables, which also covers events the relay gave
+ * up on in the meantime.
+ */
+@Component
+public class SalesAggregates {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesAggregates.class);
+
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    // plain UPDATE, then INSERT for the keys that had no row yet: portable, and safe because no two
+    // writers touch the same day at once (increments exclude a rebuild, rebuild chunks are disjoint)
+    private static final String UPDATE_DAY =
+            "UPDATE daily_sales SET orders = orders + ?, units = units + ?, revenue = revenue + ? WHERE sale_date = ?";
+
+    private static final String INSERT_DAY =
+            "INSERT INTO daily_sales (orders, units, revenue, sale_date) VALUES (?, ?, ?, ?)";
+
+    private static final String UPDATE_BREAKDOWN =
+            "UPDATE daily_sales_breakdown SET units = units + ?, revenue = revenue + ? " +
+            "WHERE breakdown = ? AND sale_date = ? AND breakdown_id = ?";
+
+    private static final String INSERT_BREAKDOWN =
+            "INSERT INTO daily_sales_breakdown (units, revenue, breakdown, sale_date, breakdown_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_COUNTED = "INSERT INTO sales_counted_orders (order_id) VALUES (?)";
+
+    private static final String ORDER_LINES =
+            "SELECT o.order_id, o.order_date, oi.product_id, oi.quantity, oi.order_product_price, p.category_id, p.seller_id " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id LEFT JOIN products p ON p.product_id = oi.product_id " +
+            "WHERE o.order_date BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT o.order_id, o.order_date, oi.product_id, oi.quantity, oi.order_product_price, p.category_id, p.seller_id " +
+            "FROM archived_orders o JOIN archived_order_items oi ON oi.order_id = o.order_id LEFT JOIN products p ON p.product_id = oi.product_id " +
+            "WHERE o.order_date BETWEEN ? AND ?";
+
+    // orders recent enough for their OrderPlaced event to be delivered during or after a rebuild
+    private static final String RECENT_ORDER_LINES =
+            "SELECT o.order_id, o.order_date, oi.product_id, oi.quantity, oi.order_product_price, p.category_id, p.seller_id " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id LEFT JOIN products p ON p.product_id = oi.product_id " +
+            "WHERE o.order_id >= ?";
+
+    private static final String BREAKDOWNS = "('" + DailySalesBreakdown.PRODUCT + "', '" + DailySalesBreakdown.CATEGORY +
+            "', '" + DailySalesBreakdown.SELLER + "')";
+
+    @Value("${project.reports.countedOrderRetentionHours:48}")
+    private long countedOrderRetentionHours;
+
+    @Value("${project.reports.rebuildChunkDays:7}")
+    private int rebuildChunkDays;
+
+    @Value("${project.reports.rebuildWorkers:4}")
+    private int rebuildWorkers;
+
+    @Value("${project.reports.rebuildFetchSize:1000}")
+    private int rebuildFetchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // increments share the read lock, a rebuild holds the write lock
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong lastPrune = new AtomicLong();
+
+    private volatile Rebuild lastRebuild;
+
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate rebuildJdbcTemplate;
+    private ExecutorService coordinator;
+    private ExecutorService chunkWorkers;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        //dedicated template so streaming only applies to the rebuild cursor
+        rebuildJdbcTemplate = StreamingJdbc.template(dataSource, rebuildFetchSize);
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        chunkWorkers = Executors.newFixedThreadPool(rebuildWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "sales-rebuild-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        coordinator.shutdownNow();
+        chunkWorkers.shutdownNow();
+    }
+
+    /**
+     * Adds the lines of placed orders to the aggregates. Orders that were already counted are skipped.
+     */
+    public void add(List<SoldLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        if (!rebuildLock.readLock().tryLock()) {
+            // never block the relay thread for the length of a rebuild: the event is retried later
+            throw new IllegalStateException("Sales aggregates are being rebuilt");
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> orderIds = new HashSet<>();
+                lines.forEach(line -> orderIds.add(line.orderId()));
+                orderIds.removeAll(countedOrderIds(orderIds));
+                if (orderIds.isEmpty()) {
+                    return;
+                }
+                Totals totals = new Totals();
+                lines.stream().filter(line -> orderIds.contains(line.orderId())).forEach(totals::add);
+                markCounted(orderIds);
+                write(totals);
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+        pruneCountedOrders();
+    }
+
+    /**
+     * Starts recomputing every aggregate from the order lines in the background.
+     */
+    public SalesRebuildStatus rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new APIException("A rebuild of the sales aggregates is already running");
+        }
+        Rebuild rebuild = new Rebuild(Instant.now());
+        lastRebuild = rebuild;
+        coordinator.execute(() -> {
+            try {
+                run(rebuild);
+                logger.info("Rebuilt sales aggregates from {} orders in {} chunks", rebuild.orders, rebuild.totalChunks);
+            } catch (RuntimeException e) {
+                logger.error("Rebuilding the sales aggregates failed", e);
+                rebuild.error = String.valueOf(e.getMessage());
+            } finally {
+                rebuild.finishedAt = Instant.now();
+                rebuilding.set(false);
+            }
+        });
+        return rebuild.status();
+    }
+
+    public SalesRebuildStatus rebuildStatus() {
+        Rebuild rebuild = lastRebuild;
+        return rebuild == null ? new SalesRebuildStatus() : rebuild.status();
+    }
+
+    private void run(Rebuild rebuild) {
+        rebuildLock.writeLock().lock();
+        try {
+            // live and archived orders
+            LocalDate[] range = dateRange("orders");
+            LocalDate[] archived = dateRange("archived_orders");
+            if (range[0] == null || (archived[0] != null && archived[0].isBefore(range[0]))) {
+                range[0] = archived[0];
+            }
+            if (range[1] == null || (archived[1] != null && archived[1].isAfter(range[1]))) {
+                range[1] = archived[1];
+            }
+            // days without orders cannot have sales
+            transactionTemplate.executeWithoutResult(status -> {
+                if (range[0] == null) {
+                    jdbcTemplate.update("DELETE FROM daily_sales");
+                    jdbcTemplate.update("DELETE FROM daily_sales_breakdown");
+                } else {
+                    jdbcTemplate.update("DELETE FROM daily_sales WHERE sale_date < ? OR sale_date > ?", range[0], range[1]);
+                    jdbcTemplate.update("DELETE FROM daily_sales_breakdown WHERE sale_date < ? OR sale_date > ?", range[0], range[1]);
+                }
+            });
+            if (range[0] == null) {
+                return;
+            }
+
+            List<Future<?>> chunks = new ArrayList<>();
+            for (LocalDate from = range[0]; !from.isAfter(range[1]); from = from.plusDays(rebuildChunkDays)) {
+                LocalDate start = from;
+                LocalDate end = from.plusDays(rebuildChunkDays - 1L).isAfter(range[1]) ? range[1] : from.plusDays(rebuildChunkDays - 1L);
+                chunks.add(chunkWorkers.submit(() -> rebuildChunk(start, end, rebuild)));
+            }
+            rebuild.totalChunks = chunks.size();
+            try {
+                for (Future<?> chunk : chunks) {
+                    chunk.get();
+                }
+            } catch (ExecutionException e) {
+                // chunks already written stay correct; the failed ones keep their previous values
+                chunks.forEach(chunk -> chunk.cancel(true));
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                chunks.forEach(chunk -> chunk.cancel(true));
+                throw new IllegalStateException("Rebuild interrupted", e);
+            }
+            addUncountedRecentOrders();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the recent orders that are not counted yet: those placed after their chunk was read, whose
+     * increments were turned away while the rebuild ran.
+     */
+    private void addUncountedRecentOrders() {
+        long firstRecentOrderId = TimeOrderedIdGenerator.firstIdAt(Instant.now().minus(Duration.ofHours(countedOrderRetentionHours)));
+        transactionTemplate.executeWithoutResult(status -> {
+            List<SoldLine> lines = new ArrayList<>();
+            rebuildJdbcTemplate.query(RECENT_ORDER_LINES, (RowCallbackHandler) rs -> lines.add(soldLine(rs)), firstRecentOrderId);
+            Set<Long> orderIds = new HashSet<>();
+            lines.forEach(line -> orderIds.add(line.orderId()));
+            orderIds.removeAll(countedOrderIds(orderIds));
+            if (orderIds.isEmpty()) {
+                return;
+            }
+            Totals totals = new Totals();
+            lines.stream().filter(line -> orderIds.contains(line.orderId())).forEach(totals::add);
+            markCounted(orderIds);
+            write(totals);
+            logger.info("Added {} orders placed during the sales aggregates rebuild", orderIds.size());
+        });
+    }
+
+    private static SoldLine soldLine(ResultSet rs) throws SQLException {
+        long categoryId = rs.getLong("category_id");
+        Long categoryIdOrNull = rs.wasNull() ? null : categoryId;
+        long sellerId = rs.getLong("seller_id");
+        Long sellerIdOrNull = rs.wasNull() ? null : sellerId;
+        return new SoldLine(rs.getLong("order_id"), rs.getObject("order_date", LocalDate.class),
+                rs.getLong("product_id"), categoryIdOrNull, sellerIdOrNull,
+                rs.getInt("quantity"), rs.getDouble("order_product_price"));
+    }
+
+    private LocalDate[] dateRange(String table) {
+        return jdbcTemplate.query("SELECT MIN(order_date), MAX(order_date) FROM " + table, rs -> {
+            rs.next();
+            return new LocalDate[]{rs.getObject(1, LocalDate.class), rs.getObject(2, LocalDate.class)};
+        });
+    }
+
+    /**
+     * Replaces the aggregates of one date range, read from its live and archived order lines, in one transaction.
+     */
+    private void rebuildChunk(LocalDate from, LocalDate to, Rebuild rebuild) {
+        long firstRecentOrderId = TimeOrderedIdGenerator.firstIdAt(Instant.now().minus(Duration.ofHours(countedOrderRetentionHours)));
+        Totals totals = new Totals();
+        transactionTemplate.executeWithoutResult(status -> {
+            rebuildJdbcTemplate.query(ORDER_LINES, (RowCallbackHandler) rs -> totals.add(soldLine(rs)), from, to, from, to);
+
+            jdbcTemplate.update("DELETE FROM daily_sales WHERE sale_date BETWEEN ? AND ?", from, to);
+            jdbcTemplate.update("DELETE FROM daily_sales_breakdown WHERE breakdown IN " + BREAKDOWNS +
+                    " AND sale_date BETWEEN ? AND ?", from, to);
+            write(totals);
+
+            // orders whose OrderPlaced event may still be delivered must not be added again
+            Set<Long> recent = new HashSet<>();
+            totals.orderIds.forEach(orderId -> {
+                if (orderId >= firstRecentOrderId) {
+                    recent.add(orderId);
+                }
+            });
+            recent.removeAll(countedOrderIds(recent));
+            markCounted(recent);
+        });
+        rebuild.completedChunks.incrementAndGet();
+        rebuild.orders.addAndGet(totals.orderIds.size());
+        rebuild.orderLines.addAndGet(totals.lines);
+    }
+
+    private void write(Totals totals) {
+        List<Object[]> days = new ArrayList<>();
+        totals.days.forEach((day, sum) -> days.add(new Object[]{sum.orders, sum.units, sum.revenue, day}));
+        List<Object[]> breakdowns = new ArrayList<>();
+        totals.breakdowns.forEach((key, sum) -> breakdowns.add(new Object[]{sum.units, sum.revenue, key.getBreakdown(),
+                key.getSaleDate(), key.getBreakdownId()}));
+        upsert(UPDATE_DAY, INSERT_DAY, days);
+        upsert(UPDATE_BREAKDOWN, INSERT_BREAKDOWN, breakdowns);
+    }
+
+    /**
+     * Adds to the existing rows and inserts the rows that were missing; both statements take the
+     * same parameters.
+     */
+    private void upsert(String update, String insert, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(update, rows);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert, missing);
+        }
+    }
+
+    private Set<Long> countedOrderIds(Collection<Long> orderIds) {
+        Set<Long> counted = new HashSet<>();
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_STATEMENT) {
+            List<Long> slice = ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_STATEMENT));
+            jdbcTemplate.query("SELECT order_id FROM sales_counted_orders WHERE order_id IN (" +
+                            String.join(", ", Collections.nCopies(slice.size(), "?")) + ")",
+                    (RowCallbackHandler) rs -> counted.add(rs.getLong(1)), slice.toArray());
+        }
+        return counted;
+    }
+
+    private void markCounted(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_COUNTED, orderIds.stream().map(orderId -> new Object[]{orderId}).toList());
+        }
+    }
+
+    private void pruneCountedOrders() {
+        long now = System.currentTimeMillis();
+        long last = lastPrune.get();
+        if (now - last < PRUNE_INTERVAL.toMillis() || !lastPrune.compareAndSet(last, now)) {
+            return;
+        }
+        // ids are time ordered, so old entries are a range of the primary key
+        long firstKept = TimeOrderedIdGenerator.firstIdAt(Instant.ofEpochMilli(now).minus(Duration.ofHours(countedOrderRetentionHours)));
+        int pruned = jdbcTemplate.update("DELETE FROM sales_counted_orders WHERE order_id < ?", firstKept);
+        logger.debug("Pruned {} counted order ids", pruned);
+    }
+
+    /**
+     * One order line as counted by the aggregates; {@code categoryId} is null if the product no
+     * longer exists, {@code sellerId} if it has no seller.
+     */
+    public record SoldLine(long orderId, LocalDate saleDate, long productId, Long categoryId, Long sellerId,
+                           int quantity, double price) {
+    }
+
+    private static final class Sum {
+        long orders;
+        long units;
+        double revenue;
+    }
+
+    private static final class Totals {
+        final Map<LocalDate, Sum> days = new HashMap<>();
+        final Map<DailySalesBreakdown.Key, Sum> breakdowns = new HashMap<>();
+        final Set<Long> orderIds = new HashSet<>();
+        long lines;
+
+        void add(SoldLine line) {
+            lines++;
+            double revenue = line.price() * line.quantity();
+            Sum day = days.computeIfAbsent(line.saleDate(), date -> new Sum());
+            if (orderIds.add(line.orderId())) {
+                day.orders++;
+            }
+            day.units += line.quantity();
+            day.revenue += revenue;
+            addBreakdown(DailySalesBreakdown.PRODUCT, line.productId(), line, revenue);
+            if (line.categoryId() != null) {
+                addBreakdown(DailySalesBreakdown.CATEGORY, line.categoryId(), line, revenue);
+            }
+            addBreakdown(DailySalesBreakdown.SELLER, line.sellerId() == null ? DailySalesBreakdown.NO_SELLER : line.sellerId(),
+                    line, revenue);
+        }
+
+        private void addBreakdown(String breakdown, long breakdownId, SoldLine line, double revenue) {
+            Sum sum = breakdowns.computeIfAbsent(new DailySalesBreakdown.Key(breakdown, line.saleDate(), breakdownId), key -> new Sum());
+            sum.units += line.quantity();
+            sum.revenue += revenue;
+        }
+    }
+
+    private static final class Rebuild {
+        final Instant startedAt;
+        final AtomicInteger completedChunks = new AtomicInteger();
+        final AtomicLong orders = new AtomicLong();
+        final AtomicLong orderLines = new AtomicLong();
+        volatile int totalChunks;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        Rebuild(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        SalesRebuildStatus status() {
+            return new SalesRebuildStatus(finishedAt == null, startedAt, finishedAt, totalChunks, completedChunks.get(),
+                    orders.get(), orderLines.get(), error);
+        }
+    }
+}
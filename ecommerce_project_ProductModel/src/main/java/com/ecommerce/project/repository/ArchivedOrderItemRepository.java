@@ -0,0 +1,14 @@
+package com.ecommerce.project.repository;
+
+
+import com.ecommerce.project.model.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+
+    List<ArchivedOrderItem> findByOrderId(Long orderId);
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.project.repository;
+
+
+import com.ecommerce.project.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder,Long>, ArchivedOrderRepositoryCustom {
+
+    //newest archived order date (one index probe); null while nothing is archived
+    @Query("SELECT MAX(o.orderDate) FROM ArchivedOrder o")
+    LocalDate findLatestOrderDate();
+}
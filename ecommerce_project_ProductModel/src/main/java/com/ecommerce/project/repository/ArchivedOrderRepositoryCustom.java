@@ -0,0 +1,14 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.payload.OrderSummaryDTO;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ArchivedOrderRepositoryCustom {
+
+    //same listing as OrderRepositoryCustom.findOrderSummaries, over the archived orders
+    List<OrderSummaryDTO> findOrderSummaries(String email, String orderStatus, LocalDate fromDate, LocalDate toDate,
+                                             LocalDate afterDate, Long afterId, Limit limit);
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.model.ArchivedOrder;
+import com.ecommerce.project.payload.OrderSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+class ArchivedOrderRepositoryCustomImpl implements ArchivedOrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderSummaryDTO> findOrderSummaries(String email, String orderStatus, LocalDate fromDate, LocalDate toDate,
+                                                    LocalDate afterDate, Long afterId, Limit limit) {
+        return OrderSummaryQuery.find(entityManager, ArchivedOrder.class, email, orderStatus, fromDate, toDate, afterDate, afterId, limit);
+    }
+}
@@ -1,11 +1,15 @@
 package com.ecommerce.project.repository;
 
 import com.ecommerce.project.model.CartItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem,Long> {
 
@@ -16,4 +20,31 @@ public interface CartItemRepository extends JpaRepository<CartItem,Long> {
     @Modifying
     @Query("DELETE  FROM CartItem ci WHERE ci.cart.id=?1 AND ci.product.id=?2")
     void  deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
+
+    long countByCartUserEmail(String email);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId = ?1")
+    int deleteCartItemsByCartId(Long cartId);
+
+    //carts holding the product at a price other than its current special price
+    @Query("SELECT DISTINCT ci.cart.cartId FROM CartItem ci WHERE ci.product.productId = ?1 AND ci.productPrice <> ci.product.specialPrice")
+    List<Long> findStaleCartIdsByProductId(Long productId, Pageable pageable);
+
+    //products whose price changed without every cart line following it (e.g. after a restart)
+    @Query("SELECT DISTINCT ci.product.productId FROM CartItem ci WHERE ci.productPrice <> ci.product.specialPrice")
+    List<Long> findProductIdsWithStaleCartItems();
+
+    @Query("SELECT COUNT(ci) > 0 FROM CartItem ci WHERE ci.cart.cartId = ?1 AND ci.productPrice <> ci.product.specialPrice")
+    boolean existsStaleCartItemByCartId(Long cartId);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.productPrice = (SELECT p.specialPrice FROM Product p WHERE p = ci.product) " +
+            "WHERE ci.product.productId = ?1 AND ci.cart.cartId IN ?2")
+    int repriceCartItems(Long productId, Collection<Long> cartIds);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.productPrice = (SELECT p.specialPrice FROM Product p WHERE p = ci.product) " +
+            "WHERE ci.cart.cartId = ?1")
+    int repriceCartItemsByCartId(Long cartId);
 }
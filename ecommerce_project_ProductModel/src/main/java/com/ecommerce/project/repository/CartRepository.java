@@ -1,10 +1,14 @@
 package com.ecommerce.project.repository;
 
 import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.ProductDTO;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -14,9 +18,34 @@ public interface CartRepository extends JpaRepository<Cart,Long> {
     @Query("SELECT c FROM Cart c WHERE  c.user.email=?1")
     Cart findCartByEmail(String email);
 
+    //fetch plan "Cart.itemsWithProducts": cart, its items and their products in one select
+    @EntityGraph("Cart.itemsWithProducts")
+    @Query("SELECT c FROM Cart c WHERE  c.user.email=?1")
+    Cart findCartWithItemsByEmail(String email);
+
+    @EntityGraph("Cart.itemsWithProducts")
+    @Query("SELECT c FROM Cart c WHERE c.cartId=?1")
+    Cart findCartWithItemsByCartId(Long cartId);
+
+    @EntityGraph("Cart.itemsWithProducts")
+    @Query("SELECT c FROM Cart c")
+    List<Cart> findAllWithItems();
+
     @Query("SELECT c FROM Cart c WHERE  c.user.email=?1 AND c.id=?2")
     Cart findCartByEmailAndCartId(String emailId, Long cartId);
 
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
     List<Cart> findCartsByProductId(Long productId);
+
+    //products of a cart as DTO rows, with the quantity taken from the cart item instead of the product stock
+    @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.Description, p.image, ci.quantity, p.price, p.discount, p.specialPrice) " +
+            "FROM CartItem ci JOIN ci.product p WHERE ci.cart.cartId = ?1")
+    List<ProductDTO> findCartProductsByCartId(Long cartId);
+
+    //recomputes each cart total from its lines, so it can be re-run safely after any line repricing
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Cart c SET c.totalPrice = " +
+            "COALESCE((SELECT SUM(ci.productPrice * ci.quantity) FROM CartItem ci WHERE ci.cart = c), 0) " +
+            "WHERE c.cartId IN ?1")
+    int recalculateTotalPrices(Collection<Long> cartIds);
 }
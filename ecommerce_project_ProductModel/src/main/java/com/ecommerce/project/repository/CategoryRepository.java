@@ -1,8 +1,24 @@
 package com.ecommerce.project.repository;
 
 import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.CategoryDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CategoryRepository extends JpaRepository<Category,Long> {
     Category findByCategoryName( String categoryName);
+
+    //keyset (cursor) listing---->no OFFSET and no COUNT query
+    Window<Category> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    //read-only projection---->the products collection is never touched
+    @Query(value = "SELECT new com.ecommerce.project.payload.CategoryDTO(c.categoryId, c.categoryName) FROM categories c",
+            countQuery = "SELECT COUNT(c) FROM categories c")
+    Page<CategoryDTO> findAllCategoryDTOs(Pageable pageable);
 }
\ No newline at end of file
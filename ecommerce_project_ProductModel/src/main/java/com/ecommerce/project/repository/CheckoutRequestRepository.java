@@ -0,0 +1,35 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.model.CheckoutRequest;
+import com.ecommerce.project.model.CheckoutStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CheckoutRequestRepository extends JpaRepository<CheckoutRequest, Long> {
+
+    CheckoutRequest findByReferenceAndEmail(String reference, String email);
+
+    CheckoutRequest findFirstByEmailAndStatusIn(String email, Collection<CheckoutStatus> statuses);
+
+    //journal entries to put back on the queue after a restart, oldest first
+    @Query("SELECT cr.checkoutRequestId FROM CheckoutRequest cr WHERE cr.status IN ?1 ORDER BY cr.checkoutRequestId")
+    List<Long> findIdsByStatusIn(Collection<CheckoutStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest cr SET cr.status = com.ecommerce.project.model.CheckoutStatus.PROCESSING, cr.updatedAt = ?2 " +
+            "WHERE cr.checkoutRequestId IN ?1 AND cr.status = com.ecommerce.project.model.CheckoutStatus.QUEUED")
+    int markProcessing(Collection<Long> checkoutRequestIds, Instant updatedAt);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest cr SET cr.status = com.ecommerce.project.model.CheckoutStatus.FAILED, cr.activeEmail = NULL, " +
+            "cr.failureReason = ?2, cr.updatedAt = ?3 " +
+            "WHERE cr.checkoutRequestId = ?1")
+    int markFailed(Long checkoutRequestId, String failureReason, Instant updatedAt);
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.model.DailySalesBreakdown;
+import com.ecommerce.project.payload.SalesRankDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesBreakdownRepository extends JpaRepository<DailySalesBreakdown, DailySalesBreakdown.Key> {
+
+    //rankings over a date range: one aggregate row per day and product/category/seller is read, never the order lines
+    @Query("SELECT new com.ecommerce.project.payload.SalesRankDTO(b.breakdownId, p.productName, SUM(b.units), SUM(b.revenue)) " +
+            "FROM DailySalesBreakdown b LEFT JOIN Product p ON p.productId = b.breakdownId " +
+            "WHERE b.breakdown = 'PRODUCT' AND b.saleDate BETWEEN ?1 AND ?2 " +
+            "GROUP BY b.breakdownId, p.productName ORDER BY SUM(b.units) DESC, b.breakdownId")
+    List<SalesRankDTO> findTopProducts(LocalDate fromDate, LocalDate toDate, Limit limit);
+
+    @Query("SELECT new com.ecommerce.project.payload.SalesRankDTO(b.breakdownId, c.categoryName, SUM(b.units), SUM(b.revenue)) " +
+            "FROM DailySalesBreakdown b LEFT JOIN categories c ON c.categoryId = b.breakdownId " +
+            "WHERE b.breakdown = 'CATEGORY' AND b.saleDate BETWEEN ?1 AND ?2 " +
+            "GROUP BY b.breakdownId, c.categoryName ORDER BY SUM(b.revenue) DESC, b.breakdownId")
+    List<SalesRankDTO> findTopCategories(LocalDate fromDate, LocalDate toDate, Limit limit);
+
+    //products without a seller are reported under breakdownId 0 with no name
+    @Query("SELECT new com.ecommerce.project.payload.SalesRankDTO(b.breakdownId, u.userName, SUM(b.units), SUM(b.revenue)) " +
+            "FROM DailySalesBreakdown b LEFT JOIN User u ON u.userId = b.breakdownId " +
+            "WHERE b.breakdown = 'SELLER' AND b.saleDate BETWEEN ?1 AND ?2 " +
+            "GROUP BY b.breakdownId, u.userName ORDER BY SUM(b.revenue) DESC, b.breakdownId")
+    List<SalesRankDTO> findTopSellers(LocalDate fromDate, LocalDate toDate, Limit limit);
+}
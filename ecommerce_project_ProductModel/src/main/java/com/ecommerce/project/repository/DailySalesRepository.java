@@ -0,0 +1,19 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.model.DailySales;
+import com.ecommerce.project.payload.DailySalesDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate> {
+
+    //one row per day with sales, oldest first
+    @Query("SELECT new com.ecommerce.project.payload.DailySalesDTO(d.saleDate, d.orders, d.units, d.revenue) " +
+            "FROM DailySales d WHERE d.saleDate BETWEEN ?1 AND ?2 ORDER BY d.saleDate")
+    List<DailySalesDTO> findDailySales(LocalDate fromDate, LocalDate toDate);
+}
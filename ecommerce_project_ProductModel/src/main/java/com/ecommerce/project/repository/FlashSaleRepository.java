@@ -0,0 +1,15 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.model.FlashSale;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FlashSaleRepository extends JpaRepository<FlashSale, Long> {
+
+    @Modifying
+    @Query("UPDATE FlashSale f SET f.closed = true WHERE f.productId = ?1")
+    int markClosed(Long productId);
+}
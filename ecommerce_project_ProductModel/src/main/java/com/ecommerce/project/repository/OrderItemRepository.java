@@ -3,8 +3,13 @@ package com.ecommerce.project.repository;
 
 import com.ecommerce.project.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    //units of the product ordered in lines created after the given order item id
+    @Query("SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.product.productId = ?1 AND oi.orderItemId > ?2")
+    long sumQuantityByProductIdAfter(Long productId, Long orderItemId);
 }
@@ -2,10 +2,16 @@ package com.ecommerce.project.repository;
 
 
 import com.ecommerce.project.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order,Long>{
+public interface OrderRepository extends JpaRepository<Order,Long>, OrderRepositoryCustom{
 
+    //fetch plan "Order.details": the order, its items and their products, payment and address in one select
+    @EntityGraph("Order.details")
+    @Query("SELECT o FROM Order o WHERE o.orderId = ?1")
+    Order findWithDetailsByOrderId(Long orderId);
 }
@@ -0,0 +1,14 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.payload.OrderSummaryDTO;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    //order listing rows, newest first and undated last, continuing after (afterDate, afterId); every filter is optional
+    List<OrderSummaryDTO> findOrderSummaries(String email, String orderStatus, LocalDate fromDate, LocalDate toDate,
+                                             LocalDate afterDate, Long afterId, Limit limit);
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.payload.OrderSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The order listing query over live or archived orders, newest first, continuing after (afterDate, afterId).
+ * Orders without a date come last (MySQL sorts nulls low, so last when descending) and are paged
+ * by id alone; a null afterDate with an afterId continues among them.
+ * <p>
+ * Only the filters that were given become predicates, so each combination is a plain range scan of
+ * its index ({@code email}, {@code order_status} or {@code order_date}, each followed by
+ * {@code order_date, order_id}) instead of one catch-all statement that no index fits.
+ */
+final class OrderSummaryQuery {
+
+    private OrderSummaryQuery() {
+    }
+
+    static List<OrderSummaryDTO> find(EntityManager entityManager, Class<?> orderType, String email, String orderStatus,
+                                      LocalDate fromDate, LocalDate toDate, LocalDate afterDate, Long afterId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummaryDTO> query = cb.createQuery(OrderSummaryDTO.class);
+        Root<?> o = query.from(orderType);
+        Path<LocalDate> orderDate = o.get("orderDate");
+        Path<Long> orderId = o.get("orderId");
+
+        List<Predicate> where = new ArrayList<>();
+        if (email != null) {
+            where.add(cb.equal(o.get("email"), email));
+        }
+        if (orderStatus != null) {
+            where.add(cb.equal(o.get("orderStatus"), orderStatus));
+        }
+        if (fromDate != null) {
+            where.add(cb.greaterThanOrEqualTo(orderDate, fromDate));
+        }
+        if (toDate != null) {
+            where.add(cb.lessThanOrEqualTo(orderDate, toDate));
+        }
+        if (afterId != null && afterDate != null) {
+            where.add(cb.or(cb.lessThan(orderDate, afterDate), cb.isNull(orderDate),
+                    cb.and(cb.equal(orderDate, afterDate), cb.lessThan(orderId, afterId))));
+        } else if (afterId != null) {
+            where.add(cb.and(cb.isNull(orderDate), cb.lessThan(orderId, afterId)));
+        }
+
+        query.select(cb.construct(OrderSummaryDTO.class, orderId, o.get("email"), orderDate, o.get("totalAmount"),
+                        o.get("orderStatus")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(orderDate), cb.desc(orderId));
+        return entityManager.createQuery(query).setMaxResults(limit.max()).getResultList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.project.repository;
+
+import com.ecommerce.project.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+}
@@ -2,16 +2,64 @@ package com.ecommerce.project.repository;
 
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product,Long> {
    Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageDetails);
    Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageable);
 
+   //keyset (cursor) listings---->no OFFSET and no COUNT query
+   //(Hibernate cannot combine keyset scrolling with a DTO constructor projection; associations are lazy so only product columns are read)
+   Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+   Window<Product> findByCategory(Category category, ScrollPosition position, Sort sort, Limit limit);
+   long countByCategory(Category category);
+
+   boolean existsByCategoryAndProductName(Category category, String productName);
+
+   //bulk import: duplicate check and re-reading the rows of a written batch
+   @Query("SELECT p.productName FROM Product p WHERE p.category.categoryId = ?1")
+   List<String> findProductNamesByCategoryId(Long categoryId);
+
+   @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.Description, p.image, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p WHERE p.category.categoryId = ?1 AND p.productName IN ?2")
+   List<ProductDTO> findProductDTOsByCategoryIdAndNames(Long categoryId, Collection<String> names);
+
+   @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.Description, p.image, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p WHERE p.productId IN ?1")
+   List<ProductDTO> findProductDTOsByIds(Collection<Long> productIds);
+
+   //search index build: the next batch after the last product id read (keyset, no count query)
+   @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.Description, p.image, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p WHERE p.productId > ?1 ORDER BY p.productId")
+   List<ProductDTO> findProductDTOsAfter(Long productId, Limit limit);
+
+   //current stock of the products on a cached listing page: [productId, quantity] rows
+   @Query("SELECT p.productId, p.quantity FROM Product p WHERE p.productId IN ?1")
+   List<Object[]> findQuantitiesByIds(Collection<Long> productIds);
+
+   //read-only projections---->only the DTO columns are selected, no entity or association is loaded
+   @Query(value = "SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.Description, p.image, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p",
+           countQuery = "SELECT COUNT(p) FROM Product p")
+   Page<ProductDTO> findAllProductDTOs(Pageable pageable);
+
+   @Query(value = "SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.Description, p.image, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p WHERE p.category.categoryId = ?1 ORDER BY p.price ASC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.categoryId = ?1")
+   Page<ProductDTO> findProductDTOsByCategoryId(Long categoryId, Pageable pageable);
+
+   @Query(value = "SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.Description, p.image, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p WHERE LOWER(p.productName) LIKE LOWER(?1)",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE LOWER(p.productName) LIKE LOWER(?1)")
+   Page<ProductDTO> findProductDTOsByNameLike(String keyword, Pageable pageable);
+
 
 }
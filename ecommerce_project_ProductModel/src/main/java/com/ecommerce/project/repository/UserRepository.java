@@ -2,7 +2,10 @@ package com.ecommerce.project.repository;
 
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 
 import java.util.Optional;
@@ -12,9 +15,18 @@ public interface UserRepository extends JpaRepository<User,Long> {
 
     Optional<User> findByUserName(String username);
 
+    //fetch plan "User.withRoles": used for authentication, where the roles are always needed
+    @EntityGraph("User.withRoles")
+    Optional<User> findWithRolesByUserName(String username);
+
     Boolean existsByUserName(String username);
 
     Boolean existsByEmail(String email);
 
+    //rehash on sign-in: only the password column changes
+    @Modifying
+    @Query("UPDATE User u SET u.password = ?2 WHERE u.userId = ?1")
+    int updatePassword(Long userId, String password);
+
 
 }
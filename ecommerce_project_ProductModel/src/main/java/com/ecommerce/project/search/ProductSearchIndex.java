@@ -0,0 +1,255 @@
+package com.ecommerce.project.search;
+
+import com.ecommerce.project.cache.ProductCatalogCache;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory inverted index over product name and description.
+ * <p>
+ * Terms live in a sorted dictionary so a query token matches every indexed term it is a prefix of
+ * ("phon" finds "phone" and "phones"). Name hits weigh more than description hits, and results are
+ * ranked by the summed weight of all query tokens. The index is built once at startup and then kept
+ * in sync by {@code ProductServiceImpl} on every product write, applied when the write commits.
+ * <p>
+ * The build fills a fresh index while the catalog keeps changing; writes made until it is swapped in
+ * are buffered and replayed on top of it, so none is lost to a batch read before it. The index only
+ * ranks: the products on a result page are read from the database, so their stock and prices are
+ * current rather than as of their last indexing.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    // the index searched; replaced as a whole when a build completes
+    private volatile Index current = new Index();
+
+    // writes made while no build has been swapped in yet, replayed in order on top of the built index
+    // (productId -> its terms, empty once removed); null once the index is ready
+    private LinkedHashMap<Long, Map<String, Integer>> pending = new LinkedHashMap<>();
+
+    /**
+     * Loads the whole catalog in batches into a fresh index once the application has started, then
+     * replays the writes made meanwhile and swaps it in. Each batch continues after the last product
+     * id read, so it is one index range read with no count and no rows skipped over.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        Index built = new Index();
+        long lastProductId = Long.MIN_VALUE;
+        List<ProductDTO> batch;
+        do {
+            batch = productRepository.findProductDTOsAfter(lastProductId, Limit.of(BUILD_BATCH_SIZE));
+            batch.forEach(productDTO -> built.put(productDTO.getProductId(), terms(productDTO)));
+            if (!batch.isEmpty()) {
+                lastProductId = batch.get(batch.size() - 1).getProductId();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        synchronized (this) {
+            if (pending == null) {
+                return;
+            }
+            pending.forEach(built::put);
+            pending = null;
+            current = built;
+        }
+        // keyword pages cached from the LIKE fallback during startup are replaced by ranked results
+        productCatalogCache.invalidateAll();
+        logger.info("Product search index built with {} products and {} terms", built.terms.size(), built.postings.size());
+    }
+
+    public boolean isReady() {
+        return pending == null;
+    }
+
+    /**
+     * Adds the product to the index, replacing any earlier version of it, once the current
+     * transaction commits (right away when there is none).
+     */
+    public void index(Product product) {
+        index(productMapper.toDto(product));
+    }
+
+    public void index(ProductDTO productDTO) {
+        writeAfterCommit(productDTO.getProductId(), terms(productDTO));
+    }
+
+    /**
+     * Removes the product and all of its postings once the current transaction commits.
+     */
+    public void remove(Long productId) {
+        writeAfterCommit(productId, Collections.emptyMap());
+    }
+
+    // terms are taken now, from the product as written; a write that rolls back never shows
+    private void writeAfterCommit(Long productId, Map<String, Integer> terms) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(productId, terms);
+                }
+            });
+        } else {
+            write(productId, terms);
+        }
+    }
+
+    private synchronized void write(Long productId, Map<String, Integer> terms) {
+        if (pending != null) {
+            pending.remove(productId);
+            pending.put(productId, terms);
+        } else {
+            current.put(productId, terms);
+        }
+    }
+
+    private static Map<String, Integer> terms(ProductDTO productDTO) {
+        Map<String, Integer> terms = new HashMap<>();
+        tokenize(productDTO.getProductName()).forEach(t -> terms.merge(t, NAME_WEIGHT, Integer::sum));
+        tokenize(productDTO.getDescription()).forEach(t -> terms.merge(t, DESCRIPTION_WEIGHT, Integer::sum));
+        return terms;
+    }
+
+    /**
+     * Returns one page of products matching every token of the keyword, best matches first.
+     */
+    public ProductResponse search(String keyword, int pageNumber, int pageSize) {
+        List<String> queryTokens = tokenize(keyword);
+        ConcurrentSkipListMap<String, Map<Long, Integer>> postings = current.postings;
+
+        Map<Long, Integer> scores = null;
+        for (String token : queryTokens) {
+            Map<Long, Integer> tokenScores = new HashMap<>();
+            for (Map<Long, Integer> ids : postings.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                ids.forEach((id, weight) -> tokenScores.merge(id, weight, Integer::sum));
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // every token must match: keep only products seen for all tokens so far
+                Map<Long, Integer> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Long, Integer> entry : tokenScores.entrySet()) {
+                    Integer earlier = previous.get(entry.getKey());
+                    if (earlier != null) {
+                        scores.put(entry.getKey(), earlier + entry.getValue());
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        if (scores == null) {
+            scores = Collections.emptyMap();
+        }
+
+        // keep only the top (pageNumber + 1) * pageSize hits instead of sorting every match
+        Comparator<Map.Entry<Long, Integer>> byRelevance = Map.Entry.<Long, Integer>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        int limit = (int) Math.min((long) (pageNumber + 1) * pageSize, Integer.MAX_VALUE);
+        PriorityQueue<Map.Entry<Long, Integer>> top = new PriorityQueue<>(byRelevance.reversed());
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(top);
+        ranked.sort(byRelevance);
+
+        int from = Math.min(pageNumber * pageSize, ranked.size());
+        List<Long> pageIds = ranked.subList(from, ranked.size()).stream().map(Map.Entry::getKey).toList();
+        List<ProductDTO> content = new ArrayList<>();
+        if (!pageIds.isEmpty()) {
+            // one select for the page; a product deleted since it was ranked is left out
+            Map<Long, ProductDTO> rows = new HashMap<>();
+            productRepository.findProductDTOsByIds(pageIds).forEach(row -> rows.put(row.getProductId(), row));
+            pageIds.stream().map(rows::get).filter(Objects::nonNull).forEach(content::add);
+        }
+
+        long totalItems = scores.size();
+        int totalPages = pageSize == 0 ? 1 : (int) Math.ceil((double) totalItems / pageSize);
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(content);
+        productResponse.setPageNumber(pageNumber);
+        productResponse.setPageSize(pageSize);
+        productResponse.setTotalItems(totalItems);
+        productResponse.setTotalPages(totalPages);
+        productResponse.setLastPage(pageNumber + 1 >= totalPages);
+        return productResponse;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Postings and the terms each product was indexed under, so a product can be un-indexed on update.
+     */
+    private static final class Index {
+
+        // term -> (productId -> weight of the term in that product)
+        private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+
+        private final Map<Long, Set<String>> terms = new ConcurrentHashMap<>();
+
+        // replaces whatever the product was indexed under before; no terms removes it
+        void put(Long productId, Map<String, Integer> productTerms) {
+            Set<String> previous = productTerms.isEmpty() ? terms.remove(productId) : terms.put(productId, productTerms.keySet());
+            if (previous != null) {
+                for (String term : previous) {
+                    postings.computeIfPresent(term, (k, ids) -> {
+                        ids.remove(productId);
+                        return ids.isEmpty() ? null : ids;
+                    });
+                }
+            }
+            productTerms.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, k -> new ConcurrentHashMap<>()).put(productId, weight));
+        }
+    }
+}
@@ -8,8 +8,12 @@ import com.ecommerce.project.repository.RoleRepository;
 import com.ecommerce.project.repository.UserRepository;
 import com.ecommerce.project.security.jwt.AuthEntryPointJwt;
 import com.ecommerce.project.security.jwt.AuthFilter;
+import com.ecommerce.project.security.ratelimit.RateLimitFilter;
+import com.ecommerce.project.security.ratelimit.RateLimiter;
+import com.ecommerce.project.security.services.PooledPasswordEncoder;
 import com.ecommerce.project.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,6 +24,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -41,6 +46,21 @@ public class WebSecurityConfig {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${project.auth.bcryptStrength:10}")
+    private int bcryptStrength;
+
+    @Value("${project.auth.hashWorkers:2}")
+    private int hashWorkers;
+
+    @Value("${project.auth.hashQueueCapacity:16}")
+    private int hashQueueCapacity;
+
+    @Value("${project.auth.hashRetryAfterSeconds:1}")
+    private long hashRetryAfterSeconds;
+
     @Bean
     public AuthFilter authenticationJwtTokenFilter(){
         return new AuthFilter();
@@ -51,6 +71,12 @@ public class WebSecurityConfig {
         DaoAuthenticationProvider authenticationProvider=new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder());
+        //stores the new hash when a sign-in finds one made with another cost, counted once it is saved
+        authenticationProvider.setUserDetailsPasswordService((user, newPassword) -> {
+            UserDetails updated = userDetailsService.updatePassword(user, newPassword);
+            passwordEncoder().passwordRehashed();
+            return updated;
+        });
         return authenticationProvider;
     }
 
@@ -60,8 +86,10 @@ public class WebSecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder(){
+        //hashing runs on its own bounded pool, never on request threads
+        return new PooledPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), bcryptStrength,
+                hashWorkers, hashQueueCapacity, hashRetryAfterSeconds);
     }
 
     @Bean
@@ -73,7 +101,7 @@ public class WebSecurityConfig {
                         auth.requestMatchers("/api/auth/**").permitAll()
                                 .requestMatchers("/v3/api-docs/**").permitAll()
                                 .requestMatchers("/h2-console/**").permitAll()
-//                                .requestMatchers("/api/admin/**").permitAll()
+                                .requestMatchers("/api/admin/**").hasRole("ADMIN")
 //                                .requestMatchers("/api/public/**").permitAll()
                                 .requestMatchers("/swagger-ui/**").permitAll()
                                 .requestMatchers("/api/test/**").permitAll()
@@ -84,6 +112,8 @@ public class WebSecurityConfig {
         http.authenticationProvider(authenticationProvider());
 
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        //after the JWT filter, so signed-in users are limited by user id rather than address
+        http.addFilterAfter(new RateLimitFilter(rateLimiter), AuthFilter.class);
         http.headers(headers->headers.frameOptions(frameOptions->frameOptions.sameOrigin()));
         return http.build();
     }
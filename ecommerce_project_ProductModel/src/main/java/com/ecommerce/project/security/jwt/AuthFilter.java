@@ -1,5 +1,8 @@
 package com.ecommerce.project.security.jwt;
 
+import com.ecommerce.project.security.services.TokenRevocations;
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,8 +12,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,10 +26,12 @@ public class AuthFilter extends OncePerRequestFilter {
     private JWTUtils jwtUtils;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private TokenRevocations tokenRevocations;
 
     private static final Logger logger= LoggerFactory.getLogger(AuthFilter.class);
 
+    private final WebAuthenticationDetailsSource authenticationDetailsSource=new WebAuthenticationDetailsSource();
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -37,14 +40,20 @@ public class AuthFilter extends OncePerRequestFilter {
 
        try{
            String jwt=parseJwt(request);
-           if (jwt!=null && jwtUtils.validateToken(jwt)){
-               String username=jwtUtils.getUsernameFromJWTToken(jwt);
-               UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+           //one signature check per request; the claims come out of it
+           Claims claims=jwt!=null ? jwtUtils.parseClaims(jwt) : null;
+           //the principal is rebuilt from the claims alone: no user lookup per request
+           Userdetailsimpl userDetails=claims!=null ? jwtUtils.getUserFromClaims(claims) : null;
+           if (userDetails!=null && tokenRevocations.isRevoked(userDetails)){
+               logger.debug("Revoked token for user:{}",userDetails.getUsername());
+               userDetails=null;
+           }
+           if (userDetails!=null){
                UsernamePasswordAuthenticationToken authentication= new UsernamePasswordAuthenticationToken(userDetails,
                        null,
                        userDetails.getAuthorities());
                authentication.setDetails(
-                       new WebAuthenticationDetailsSource().buildDetails(request));
+                       authenticationDetailsSource.buildDetails(request));
                SecurityContextHolder.getContext().setAuthentication(authentication);
                logger.debug("Roles from jwt :{}",userDetails.getAuthorities());
            }
@@ -4,28 +4,31 @@ import com.ecommerce.project.security.services.Userdetailsimpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Utility class for handling JWT (JSON Web Token) operations.
  * <p>
  * This class provides functionality for:
  * <ul>
- *     <li>Generating JWT tokens</li>
- *     <li>Validating JWT tokens</li>
- *     <li>Extracting usernames from JWT tokens</li>
+ *     <li>Generating JWT tokens that carry the user's id, email, roles and token version</li>
+ *     <li>Rebuilding the authenticated user from those claims</li>
+ *     <li>Validating JWT tokens and extracting their claims</li>
  *     <li>Reading JWTs from HTTP Authorization headers</li>
  * </ul>
  */
@@ -34,6 +37,11 @@ public class JWTUtils {
 
     private static final Logger logger = LoggerFactory.getLogger("JWTUtils.class");
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String EMAIL_CLAIM = "email";
+    static final String ROLES_CLAIM = "roles";
+    static final String VERSION_CLAIM = "ver";
+
     /**
      * JWT expiration time in milliseconds.
      * Injected from application properties.
@@ -54,6 +62,22 @@ public class JWTUtils {
     @Value("${spring.ecom.app.jwtCookieName}")
     private String jwtCookie;
 
+    /**
+     * Key and parser are built once from the secret: both are immutable and safe to share
+     * between request threads.
+     */
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
 
     public String getJwtFromCookie(HttpServletRequest request){
         Cookie cookie= WebUtils.getCookie(request,jwtCookie);
@@ -66,7 +90,7 @@ public class JWTUtils {
     }
 
     public ResponseCookie generateJwtCookie(Userdetailsimpl userPrincipal){
-        String jwt=getTokenFromUserName(userPrincipal.getUsername());
+        String jwt=getTokenFromUser(userPrincipal);
         ResponseCookie cookie=ResponseCookie.from(jwtCookie,jwt)
                 .path("/api")
                 .maxAge(24*60*60)
@@ -94,61 +118,61 @@ public class JWTUtils {
     }
 
     /**
-     * Generates a JWT token using the provided user details.
+     * Generates a JWT token carrying everything the request filter needs to rebuild the principal:
+     * the username as subject, plus the user id, email, roles and token version as claims.
      *
-     * @param username the user details from which the username is extracted.
+     * @param userDetails the authenticated user.
      * @return a JWT token string.
      */
-    public String getTokenFromUserName(String  username) {
+    public String getTokenFromUser(Userdetailsimpl userDetails) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
         return Jwts.builder()
-                .subject(username)
+                .subject(userDetails.getUsername())
+                .claim(USER_ID_CLAIM, userDetails.getId())
+                .claim(EMAIL_CLAIM, userDetails.getEmail())
+                .claim(ROLES_CLAIM, roles)
+                .claim(VERSION_CLAIM, userDetails.getTokenVersion())
                 .issuedAt(new Date())
                 .expiration(new Date(new Date().getTime() + jwtExpiration))
-                .signWith(key())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Extracts the username (subject) from a given JWT token.
+     * Rebuilds the authenticated principal from verified claims, without touching the database.
+     * The password is not part of the token, so the principal carries none.
      *
-     * @param token the JWT token.
-     * @return the username stored as the subject in the token.
+     * @param claims claims returned by {@link #parseClaims(String)}.
+     * @return the principal, or {@code null} if the token predates the user claims.
      */
-    public String getUsernameFromJWTToken(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
-
-    /**
-     * Returns the signing key used for both signing and verifying JWT tokens.
-     *
-     * @return the cryptographic key derived from the configured secret.
-     */
-    public Key key() {
-        return Keys.hmacShaKeyFor(
-                Decoders.BASE64.decode(jwtSecret)
-        );
+    public Userdetailsimpl getUserFromClaims(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || version == null || roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        Userdetailsimpl userDetails = new Userdetailsimpl(userId.longValue(), null,
+                claims.get(EMAIL_CLAIM, String.class), claims.getSubject(), authorities);
+        userDetails.setTokenVersion(version.intValue());
+        return userDetails;
     }
 
     /**
-     * Validates a given JWT token.
+     * Verifies the signature and expiry of a JWT token and returns its claims. This is the only
+     * place a token is parsed, so a request verifies its token once.
      *
-     * @param authToken the JWT token to validate.
-     * @return {@code true} if the token is valid; {@code false} otherwise.
+     * @param token the JWT token.
+     * @return the claims of the token, or {@code null} if it is invalid.
      */
-    public boolean validateToken(String authToken) {
+    public Claims parseClaims(String token) {
         try {
-            System.out.println("validate ");
-            Jwts.parser()
-                    .verifyWith((SecretKey) key())
-                    .build()
-                    .parseSignedClaims(authToken);
-
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -157,8 +181,18 @@ public class JWTUtils {
             logger.error("Unsupported token: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         }
+        return null;
+    }
 
-        return false;
+    /**
+     * Returns the signing key used for both signing and verifying JWT tokens.
+     *
+     * @return the cryptographic key derived from the configured secret.
+     */
+    public SecretKey key() {
+        return signingKey;
     }
 }
@@ -0,0 +1,84 @@
+package com.ecommerce.project.security.ratelimit;
+
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the {@link RateLimiter} rules. Runs after {@code AuthFilter}, so signed-in users are
+ * limited by user id and anonymous requests by IP address. Behind a proxy the address is the
+ * client's, taken from {@code X-Forwarded-For} by {@code server.forward-headers-strategy}, but only
+ * for requests from the proxies in {@code server.tomcat.remoteip.internal-proxies}.
+ * <p>
+ * Limited routes get {@code RateLimit-Limit}, {@code RateLimit-Remaining}, {@code RateLimit-Reset}
+ * and {@code RateLimit-Policy} headers; a refused request gets 429 with {@code Retry-After} and
+ * never reaches the controllers or the database.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimitRule rule = rateLimiter.ruleFor(path);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.acquire(rule, client(request));
+        response.setHeader("RateLimit-Limit", String.valueOf(rule.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+        response.setHeader("RateLimit-Policy", rule.policy());
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        logger.debug("Rate limit '{}' reached for {}", rule.name(), path);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        final Map<String,Object>body=new HashMap<>();
+        body.put("status",HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error","too many requests");
+        body.put("message","Rate limit reached, retry in " + decision.retryAfterSeconds() + " seconds");
+        body.put("path",path);
+        MAPPER.writeValue(response.getOutputStream(),body);
+    }
+
+    private static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Userdetailsimpl user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
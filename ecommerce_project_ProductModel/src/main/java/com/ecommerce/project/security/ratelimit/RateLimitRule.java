@@ -0,0 +1,37 @@
+package com.ecommerce.project.security.ratelimit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code limit} requests per {@code periodSeconds} for each client on the routes matching
+ * {@code patterns}. The bucket holds {@code limit} tokens and refills evenly over the period, so
+ * a client can burst up to the limit and then gets one request every {@code period / limit}.
+ */
+public record RateLimitRule(String name, List<String> patterns, int limit, long periodSeconds) {
+
+    public boolean enabled() {
+        return limit > 0 && periodSeconds > 0 && !patterns.isEmpty();
+    }
+
+    /**
+     * Time one token takes to refill.
+     */
+    long intervalNanos() {
+        return Math.max(1, TimeUnit.SECONDS.toNanos(periodSeconds) / limit);
+    }
+
+    /**
+     * Time a drained bucket takes to fill up again.
+     */
+    long capacityNanos() {
+        return intervalNanos() * limit;
+    }
+
+    /**
+     * Value of the {@code RateLimit-Policy} header.
+     */
+    String policy() {
+        return limit + ";w=" + periodSeconds;
+    }
+}
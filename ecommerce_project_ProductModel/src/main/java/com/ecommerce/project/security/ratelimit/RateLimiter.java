@@ -0,0 +1,197 @@
+package com.ecommerce.project.security.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per rule and client (user id, or IP address for anonymous requests).
+ * <p>
+ * Each bucket is a single {@link AtomicLong}: the time at which it will be full again (the
+ * "theoretical arrival time" of the generic cell rate algorithm). Taking a token moves that time
+ * one refill interval later with a compare-and-set, so the request path takes no lock and a bucket
+ * costs one map entry. A bucket whose full-again time has passed holds nothing a fresh bucket would
+ * not, so idle buckets are dropped every {@code sweepIntervalMs}. When {@code maxEntries} clients
+ * are tracked, the next new client prunes the map to 90% of that: first the buckets that are full
+ * again, then the ones closest to full, i.e. those that took the fewest recent tokens. Memory stays
+ * bounded, and a client spreading requests over many addresses only evicts idle buckets and its
+ * own; nobody else is pushed into a shared bucket.
+ */
+@Component
+public class RateLimiter {
+
+    @Value("${project.ratelimit.search.patterns:/api/public/products/keyword/**}")
+    private String[] searchPatterns;
+
+    @Value("${project.ratelimit.search.limit:60}")
+    private int searchLimit;
+
+    @Value("${project.ratelimit.search.periodSeconds:60}")
+    private long searchPeriodSeconds;
+
+    @Value("${project.ratelimit.auth.patterns:/api/auth/signin,/api/auth/signup}")
+    private String[] authPatterns;
+
+    @Value("${project.ratelimit.auth.limit:10}")
+    private int authLimit;
+
+    @Value("${project.ratelimit.auth.periodSeconds:60}")
+    private long authPeriodSeconds;
+
+    @Value("${project.ratelimit.checkout.patterns:/api/order/users/payments/**}")
+    private String[] checkoutPatterns;
+
+    @Value("${project.ratelimit.checkout.limit:10}")
+    private int checkoutLimit;
+
+    @Value("${project.ratelimit.checkout.periodSeconds:60}")
+    private long checkoutPeriodSeconds;
+
+    @Value("${project.ratelimit.maxEntries:100000}")
+    private int maxEntries;
+
+    @Value("${project.ratelimit.sweepIntervalMs:10000}")
+    private long sweepIntervalMs;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean pruning = new AtomicBoolean();
+
+    private List<RateLimitRule> rules;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        rules = List.of(
+                        new RateLimitRule("search", patterns(searchPatterns), searchLimit, searchPeriodSeconds),
+                        new RateLimitRule("auth", patterns(authPatterns), authLimit, authPeriodSeconds),
+                        new RateLimitRule("checkout", patterns(checkoutPatterns), checkoutLimit, checkoutPeriodSeconds))
+                .stream()
+                .filter(RateLimitRule::enabled)
+                .toList();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The first rule whose patterns match the path, or {@code null} if the path is not limited.
+     */
+    public RateLimitRule ruleFor(String path) {
+        for (RateLimitRule rule : rules) {
+            for (String pattern : rule.patterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return rule;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a token from the client's bucket for the rule if one is left.
+     */
+    public Decision acquire(RateLimitRule rule, String client) {
+        AtomicLong bucket = bucket(rule.name() + '|' + client);
+        long interval = rule.intervalNanos();
+        long capacity = rule.capacityNanos();
+        while (true) {
+            long fullAt = bucket.get();
+            long now = System.nanoTime();
+            long newFullAt = Math.max(fullAt, now) + interval;
+            long ahead = newFullAt - now;
+            if (ahead > capacity) {
+                // empty: the next token is there once the bucket is back under capacity
+                return new Decision(false, rule, 0, toSeconds(fullAt - now), toSeconds(ahead - capacity));
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return new Decision(true, rule, (capacity - ahead) / interval, toSeconds(ahead), 0);
+            }
+        }
+    }
+
+    /**
+     * Number of buckets held.
+     */
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    /**
+     * Drops the buckets that are full again. A request racing with the removal may take its token
+     * from the dropped bucket, so it goes uncounted; that is at most one request per client per
+     * sweep.
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    /**
+     * Sweeps, then drops the buckets closest to full until 90% of {@code maxEntries} are left.
+     * Evicting such a bucket gives its client back the few tokens it had used.
+     */
+    void prune() {
+        sweep();
+        int excess = buckets.size() - (int) (maxEntries * 9L / 10);
+        if (excess <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long[] ahead = buckets.values().stream().mapToLong(bucket -> bucket.get() - now).sorted().toArray();
+        long threshold = ahead[Math.min(excess, ahead.length) - 1];
+        buckets.values().removeIf(bucket -> bucket.get() - now <= threshold);
+    }
+
+    private AtomicLong bucket(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        // one thread makes room; the others go ahead, so the map overshoots by a few entries at most
+        if (buckets.size() >= maxEntries && pruning.compareAndSet(false, true)) {
+            try {
+                prune();
+            } finally {
+                pruning.set(false);
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+    }
+
+    private static List<String> patterns(String[] patterns) {
+        return Arrays.stream(patterns).map(String::trim).filter(pattern -> !pattern.isEmpty()).toList();
+    }
+
+    private static long toSeconds(long nanos) {
+        // round up: a client retrying after this many seconds gets a token
+        return nanos <= 0 ? 0 : (nanos + 999_999_999) / 1_000_000_000;
+    }
+
+    /**
+     * Outcome of {@link #acquire}: whether the request may go ahead, the tokens left, the seconds
+     * until the bucket is full again and, when refused, the seconds until the next token.
+     */
+    public record Decision(boolean allowed, RateLimitRule rule, long remaining, long resetSeconds,
+                           long retryAfterSeconds) {
+    }
+}
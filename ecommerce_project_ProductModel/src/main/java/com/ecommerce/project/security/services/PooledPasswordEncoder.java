@@ -0,0 +1,129 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.exception.ServiceUnavailableException;
+import com.ecommerce.project.payload.PasswordHashingStats;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the password hashing of sign-up and sign-in on a small dedicated pool instead of the request
+ * thread.
+ * <p>
+ * BCrypt is slow on purpose, so a burst of sign-ins hashed on request threads takes every core and
+ * starves the rest of the API. Here at most {@code workers} hashes run at a time and at most
+ * {@code queueCapacity} wait; past that a call fails at once with {@link ServiceUnavailableException}
+ * (503 with {@code Retry-After}). The caller waits for its own hash, so the request threads a login
+ * storm can hold are bounded by the same numbers, and they wait without using CPU.
+ * <p>
+ * Hashes made with a different cost than the configured {@code strength} are reported by
+ * {@link #upgradeEncoding(String)}, so the authentication provider rehashes them on the next
+ * successful sign-in.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder delegate;
+    private final int strength;
+    private final int workers;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong rejectedHashes = new AtomicLong();
+    private final AtomicLong rehashedPasswords = new AtomicLong();
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, int strength, int workers, int queueCapacity,
+                                 long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.strength = strength;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = BCRYPT_COST.matcher(encodedPassword);
+        if (!cost.find() || Integer.parseInt(cost.group(1)) == strength) {
+            return false;
+        }
+        if (!executor.getQueue().isEmpty()) {
+            // a rehash costs one more hash: leave it to a later sign-in while others are waiting
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts a password whose new hash has been stored.
+     */
+    public void passwordRehashed() {
+        rehashedPasswords.incrementAndGet();
+    }
+
+    public PasswordHashingStats stats() {
+        return new PasswordHashingStats(workers, queueCapacity, executor.getQueue().size(), maxQueueDepth.get(),
+                executor.getActiveCount(), executor.getCompletedTaskCount(), rejectedHashes.get(),
+                rehashedPasswords.get());
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            rejectedHashes.incrementAndGet();
+            throw new ServiceUnavailableException("Too many sign-ins in progress, please retry shortly", retryAfterSeconds);
+        }
+        maxQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
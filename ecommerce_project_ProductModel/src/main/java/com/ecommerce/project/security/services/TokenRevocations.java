@@ -0,0 +1,127 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token versions of the users whose tokens were revoked, so a request can be authenticated from its
+ * token alone. Every token carries the user's {@code token_version} from when it was issued;
+ * revoking bumps the version, and tokens with an older one are refused.
+ * <p>
+ * Only users revoked within the token lifetime are held: anything revoked earlier has no live
+ * token left to refuse. The set is loaded before the application takes requests (startup fails
+ * if it cannot be), then reloaded every {@code revocationRefreshMs} on a background thread, which
+ * also picks up revocations made by other instances, so the request path never queries the database.
+ */
+@Component
+// the users table has to exist before the first load
+@DependsOn("entityManagerFactory")
+public class TokenRevocations {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+
+    private static final String SELECT_REVOKED =
+            "SELECT user_id, token_version, tokens_revoked_at FROM users WHERE tokens_revoked_at > ?";
+
+    @Value("${spring.app.jwtExpirationMs}")
+    private long jwtExpiration;
+
+    @Value("${project.auth.revocationRefreshMs:5000}")
+    private long refreshMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Revocation> revocations = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        // until this load, a revoked token would be taken as valid
+        refresh();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Whether the user's tokens issued before their last revocation include this one.
+     */
+    public boolean isRevoked(Userdetailsimpl user) {
+        Revocation revocation = revocations.get(user.getId());
+        return revocation != null && user.getTokenVersion() < revocation.version();
+    }
+
+    /**
+     * Refuses every token issued to the user so far; the user has to sign in again. Takes effect
+     * here at once and on other instances after their next refresh.
+     */
+    @Transactional
+    public void revoke(Long userId) {
+        Instant now = Instant.now();
+        int updated = jdbcTemplate.update(
+                "UPDATE users SET token_version = token_version + 1, tokens_revoked_at = ? WHERE user_id = ?",
+                Timestamp.from(now), userId);
+        if (updated == 0) {
+            throw new ResourceNotFoundException("User", "userId", userId);
+        }
+        Integer version = jdbcTemplate.queryForObject(
+                "SELECT token_version FROM users WHERE user_id = ?", Integer.class, userId);
+        remember(userId, new Revocation(version, now.toEpochMilli()));
+    }
+
+    /**
+     * Reloads the users revoked within the token lifetime and forgets the older ones.
+     */
+    void refresh() {
+        long cutoff = System.currentTimeMillis() - jwtExpiration;
+        jdbcTemplate.query(SELECT_REVOKED, rs -> {
+            remember(rs.getLong("user_id"),
+                    new Revocation(rs.getInt("token_version"), rs.getTimestamp("tokens_revoked_at").getTime()));
+        }, new Timestamp(cutoff));
+        revocations.values().removeIf(revocation -> revocation.revokedAtMs() < cutoff);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Token revocation refresh failed, retrying in {} ms", refreshMs, e);
+        }
+    }
+
+    private void remember(Long userId, Revocation revocation) {
+        // a refresh that read the row before a newer revoke must not roll it back
+        revocations.merge(userId, revocation,
+                (current, loaded) -> loaded.version() > current.version() ? loaded : current);
+    }
+
+    private record Revocation(int version, long revokedAtMs) {
+    }
+}
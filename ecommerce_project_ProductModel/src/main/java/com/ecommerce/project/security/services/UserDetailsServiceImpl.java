@@ -5,13 +5,14 @@ import com.ecommerce.project.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
 
     @Autowired
@@ -20,11 +21,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user=userRepository.findByUserName(username).orElseThrow(
+        User user=userRepository.findWithRolesByUserName(username).orElseThrow(
                 ()->new UsernameNotFoundException("user not found with username: "+username)
         );
 
 
         return Userdetailsimpl.build(user);
     }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Userdetailsimpl userDetails=(Userdetailsimpl) user;
+        userRepository.updatePassword(userDetails.getId(),newPassword);
+        userDetails.setPassword(newPassword);
+        return userDetails;
+    }
 }
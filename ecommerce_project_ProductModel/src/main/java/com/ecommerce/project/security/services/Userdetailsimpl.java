@@ -55,6 +55,11 @@ public class Userdetailsimpl implements UserDetails {
      */
     private Collection<? extends GrantedAuthority> authorities;
 
+    /**
+     * The user's token version; tokens carrying an older one have been revoked.
+     */
+    private int tokenVersion;
+
     /**
      * Constructs a {@code UserDetailsServiceImpl} with all user-related attributes.
      *
@@ -84,13 +89,15 @@ public class Userdetailsimpl implements UserDetails {
                 .map(role -> new SimpleGrantedAuthority(role.getRoleName().name()))
                 .collect(Collectors.toList());
 
-        return new Userdetailsimpl(
+        Userdetailsimpl userDetails = new Userdetailsimpl(
                 user.getUserId(),
                 user.getPassword(),
                 user.getEmail(),
                 user.getUserName(),
                 authorities
         );
+        userDetails.setTokenVersion(user.getTokenVersion());
+        return userDetails;
     }
 
     /**
@@ -1,13 +1,13 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.mapper.AddressMapper;
 import com.ecommerce.project.model.Address;
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.AddressDTO;
 import com.ecommerce.project.repository.AddressRepository;
 import com.ecommerce.project.repository.UserRepository;
 import com.ecommerce.project.util.AuthUtil;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -20,7 +20,7 @@ import java.util.stream.Collectors;
 public class AddressServiceImpl implements AddressService{
 
     @Autowired
-    private ModelMapper modelMapper;
+    private AddressMapper addressMapper;
 
     @Autowired
     private AddressRepository addressRepository;
@@ -35,7 +35,7 @@ public class AddressServiceImpl implements AddressService{
     @Override
     public AddressDTO createAddress(AddressDTO addressDTO, User user) {
      //convert addressDto to address
-        Address address = modelMapper.map(addressDTO, Address.class);
+        Address address = addressMapper.toEntity(addressDTO);
         //get the addresses of the user
         List<Address>addressList=user.getAddresses();
         //add the new address
@@ -49,7 +49,7 @@ public class AddressServiceImpl implements AddressService{
         Address savedAddress = addressRepository.save(address);
 
         //return the address as in model mapper
-        return modelMapper.map(address,AddressDTO.class);
+        return addressMapper.toDto(address);
     }
 
     @Override
@@ -58,7 +58,7 @@ public class AddressServiceImpl implements AddressService{
         List<Address> addressList = addressRepository.findAll();
         // 2️⃣ Convert list of Address → list of AddressDTO
         List<AddressDTO> addressDTOList = addressList.stream().map(address ->
-            modelMapper.map(address, AddressDTO.class))
+            addressMapper.toDto(address))
         .collect(Collectors.toList());
         // 3️⃣ Return the DTO list
         return addressDTOList;
@@ -69,7 +69,7 @@ public class AddressServiceImpl implements AddressService{
         //get the address by id : if not found throw resource not found exception
         Address addressFound = addressRepository.findById(id).orElseThrow(()->new ResourceNotFoundException("Address","AddressId",id));
         //convert address to addressDto
-        AddressDTO addressDTOFound    = modelMapper.map(addressFound, AddressDTO.class);
+        AddressDTO addressDTOFound    = addressMapper.toDto(addressFound);
         //return the addressDto
         return addressDTOFound;
     }
@@ -77,7 +77,7 @@ public class AddressServiceImpl implements AddressService{
     @Override
     public List<AddressDTO> getUserAddress(User user) {
         List<Address> addresses = user.getAddresses();
-        List<AddressDTO> userAddressList    = addresses.stream().map(address -> modelMapper.map(address, AddressDTO.class)).toList();
+        List<AddressDTO> userAddressList    = addresses.stream().map(address -> addressMapper.toDto(address)).toList();
         return userAddressList;
     }
 
@@ -100,7 +100,7 @@ public class AddressServiceImpl implements AddressService{
                 .equals(addressId));
         user.getAddresses().add(updatedAddress);
         userRepository.save(user);
-        return   modelMapper.map(updatedAddress,AddressDTO.class);
+        return   addressMapper.toDto(updatedAddress);
 
     }
 
@@ -0,0 +1,11 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.CheckoutStatusDTO;
+import com.ecommerce.project.payload.OrderRequestDTO;
+
+public interface AsyncCheckoutService {
+
+    CheckoutStatusDTO submitOrder(String emailId, String paymentMethod, OrderRequestDTO orderRequestDTO);
+
+    CheckoutStatusDTO getCheckoutStatus(String emailId, String reference);
+}
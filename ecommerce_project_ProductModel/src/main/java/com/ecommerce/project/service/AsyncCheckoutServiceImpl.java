@@ -0,0 +1,107 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.checkout.CheckoutQueue;
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.exception.TooManyRequestsException;
+import com.ecommerce.project.model.CheckoutRequest;
+import com.ecommerce.project.model.CheckoutStatus;
+import com.ecommerce.project.payload.CheckoutStatusDTO;
+import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.repository.AddressRepository;
+import com.ecommerce.project.repository.CartItemRepository;
+import com.ecommerce.project.repository.CheckoutRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class AsyncCheckoutServiceImpl implements AsyncCheckoutService {
+
+    @Autowired
+    private CheckoutQueue checkoutQueue;
+
+    @Autowired
+    private CheckoutRequestRepository checkoutRequestRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Value("${project.checkout.retryAfterSeconds:5}")
+    private long retryAfterSeconds;
+
+    @Override
+    public CheckoutStatusDTO submitOrder(String emailId, String paymentMethod, OrderRequestDTO orderRequestDTO) {
+        // 1. Shed load before touching the database when the queue is already full
+        if (checkoutQueue.isFull()) {
+            throw new TooManyRequestsException("Too many orders are being placed, please retry shortly", retryAfterSeconds);
+        }
+
+        // 2. Cheap checks, so most requests that would fail are rejected now instead of after queueing
+        if (paymentMethod == null || paymentMethod.length() < 4) {
+            throw new APIException("Payment method must contain at least 4 characters");
+        }
+        if (cartItemRepository.countByCartUserEmail(emailId) == 0) {
+            throw new APIException("cart is empty");
+        }
+        Long addressId = orderRequestDTO.getAddressId();
+        if (addressId == null || !addressRepository.existsById(addressId)) {
+            throw new ResourceNotFoundException("Address", "addressId", addressId);
+        }
+
+        // 3. Journal the request, so it survives a restart once accepted. The unique active email
+        // refuses a second unfinished request, so racing submissions cannot both get in
+        CheckoutRequest request = new CheckoutRequest();
+        request.setReference(UUID.randomUUID().toString());
+        request.setEmail(emailId);
+        request.setActiveEmail(emailId);
+        request.setAddressId(addressId);
+        request.setPaymentMethod(paymentMethod);
+        request.setPgName(orderRequestDTO.getPgName());
+        request.setPgPaymentId(orderRequestDTO.getPgPaymentId());
+        request.setPgStatus(orderRequestDTO.getPgStatus());
+        request.setPgResponseMessage(orderRequestDTO.getPgResponseMessage());
+        request.setStatus(CheckoutStatus.QUEUED);
+        request.setCreatedAt(Instant.now());
+        request.setUpdatedAt(request.getCreatedAt());
+        CheckoutRequest saved;
+        try {
+            saved = checkoutRequestRepository.save(request);
+        } catch (DataIntegrityViolationException e) {
+            CheckoutRequest inProgress = checkoutRequestRepository.findFirstByEmailAndStatusIn(emailId,
+                    List.of(CheckoutStatus.QUEUED, CheckoutStatus.PROCESSING));
+            throw new APIException("An order for this cart is already being placed"
+                    + (inProgress != null ? ": " + inProgress.getReference() : ""));
+        }
+
+        // 4. Queue it; if the queue filled up in the meantime, withdraw the journal entry
+        if (!checkoutQueue.offer(saved.getCheckoutRequestId())) {
+            checkoutRequestRepository.delete(saved);
+            throw new TooManyRequestsException("Too many orders are being placed, please retry shortly", retryAfterSeconds);
+        }
+
+        // 5. Return the reference the client polls with
+        return toStatusDto(saved);
+    }
+
+    @Override
+    public CheckoutStatusDTO getCheckoutStatus(String emailId, String reference) {
+        CheckoutRequest request = checkoutRequestRepository.findByReferenceAndEmail(reference, emailId);
+        if (request == null) {
+            throw new ResourceNotFoundException("Checkout", "reference", reference);
+        }
+        return toStatusDto(request);
+    }
+
+    private static CheckoutStatusDTO toStatusDto(CheckoutRequest request) {
+        return new CheckoutStatusDTO(request.getReference(), request.getStatus(), request.getOrderId(), request.getFailureReason());
+    }
+}
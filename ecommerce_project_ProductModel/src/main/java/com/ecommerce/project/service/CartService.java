@@ -20,5 +20,7 @@ public interface CartService {
 
     String deleteProductFromCart(Long cartId, Long productId);
 
-    void updateProductInCarts(Long cartId, Long productId);
+    int repriceProductInCarts(Long productId, int batchSize);
+
+    boolean repriceCart(Long cartId);
 }
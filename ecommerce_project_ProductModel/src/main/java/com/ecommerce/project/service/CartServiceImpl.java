@@ -2,6 +2,8 @@ package com.ecommerce.project.service;
 
 import com.ecommerce.project.exception.APIException;
 import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.inventory.FlashSaleInventory;
+import com.ecommerce.project.mapper.CartMapper;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.model.Product;
@@ -12,13 +14,12 @@ import com.ecommerce.project.repository.CartRepository;
 import com.ecommerce.project.repository.ProductRepository;
 import com.ecommerce.project.util.AuthUtil;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 @Service
@@ -37,7 +38,10 @@ public class CartServiceImpl implements CartService{
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CartMapper cartMapper;
+
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
 
 
     @Override
@@ -56,13 +60,14 @@ public class CartServiceImpl implements CartService{
             throw new APIException("Product " + product.getProductName() + " already exists in the cart");
         }
 
-        if (product.getQuantity() == 0) {
+        long available = availableStock(product);
+        if (available == 0) {
             throw new APIException(product.getProductName() + " is not available");
         }
 
-        if (product.getQuantity() < quantity) {
+        if (available < quantity) {
             throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+                    + " less than or equal to the quantity " + available + ".");
         }
 
 
@@ -82,16 +87,8 @@ public class CartServiceImpl implements CartService{
         cart.setTotalPrice(cart.getTotalPrice()+(product.getSpecialPrice()*quantity));
         cartRepository.save(cart);
         // Convert the updated cart entity to CartDTO
-        CartDTO cartDto = modelMapper.map(cart, CartDTO.class);
-        // Extract all items from the cart and map their products to ProductDTO
-        List<CartItem>cartItems=cart.getCartItems();
-
-        Stream<ProductDTO>productDTOStream=cartItems.stream().map(item->{
-            ProductDTO map=modelMapper.map(item.getProduct(),ProductDTO.class);
-            return map;
-        });
-        // Attach the list of products to the cart DTO
-        cartDto.setProducts(productDTOStream.toList());
+        // (each cart item's product becomes a ProductDTO carrying the cart quantity)
+        CartDTO cartDto = cartMapper.toDto(cart);
         // Return the final updated cart
         return cartDto;
     }
@@ -99,34 +96,23 @@ public class CartServiceImpl implements CartService{
     @Override
     public List<CartDTO> getAllCarts() {
         // Retrieve all Cart entities from the repository
-        List<Cart>carts  = cartRepository.findAll();
+        List<Cart>carts  = cartRepository.findAllWithItems();
         // If no carts exist, throw an exception
         if(carts.isEmpty()){
             throw new APIException("No Carts Exists");
         }
 
         // Convert each Cart entity to CartDTO
-        List<CartDTO>cartDTOs=  carts.stream().map(cart->{
-
-            // Map basic Cart fields to CartDTO
-            CartDTO cartDto = modelMapper.map(cart, CartDTO.class);
-
-            // Map each CartItem's Product to ProductDTO
-            List<ProductDTO> products = cart.getCartItems().stream().map(cartItem -> {
-                ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
-                productDTO.setQuantity(cartItem.getQuantity()); // Set the quantity from CartItem
-                return productDTO;
-            }).collect(Collectors.toList());
-
-            // Set the ProductDTO list into CartDTO
-          cartDto.setProducts(products);
-          return cartDto;
-        }).collect(Collectors.toList());
+        // (each CartItem's Product becomes a ProductDTO with the quantity from CartItem)
+        List<CartDTO>cartDTOs=  carts.stream()
+                .map(cartMapper::toDto)
+                .collect(Collectors.toList());
 
         // Return the list of CartDTOs
         return cartDTOs;
     }
 
+    @Transactional
     @Override
     public CartDTO getCart(String emailId, Long cartId) {
         // 1. Fetch cart by email and ID
@@ -135,18 +121,20 @@ public class CartServiceImpl implements CartService{
             throw new ResourceNotFoundException("cart", "cartId", cartId);
         }
 
-        // 2. Map Cart entity → CartDTO (basic fields only)
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        // 1a. Reprice the cart now if a price change has not reached it yet through CartRepricingPipeline,
+        //     then re-read it for the recomputed total
+        if (repriceCart(cart.getCartId())) {
+            cart = cartRepository.findCartByEmailAndCartId(emailId, cartId);
+        }
 
-        // 3. Update Product entity's "quantity" field with CartItem.quantity
-        cart.getCartItems().forEach(c -> c.getProduct().setQuantity(c.getQuantity()));
+        // 2. Map Cart entity → CartDTO (basic fields only)
+        CartDTO cartDTO = cartMapper.toSummaryDto(cart);
 
-        // 4. Convert Product entities → ProductDTO
-        List<ProductDTO> products = cart.getCartItems().stream()
-                .map(cartItem -> modelMapper.map(cartItem.getProduct(), ProductDTO.class))
-                .toList();
+        // 3. Load the cart's products as ProductDTO rows, quantity taken from CartItem.quantity
+        //    (projection query---->the Product entities and their cart items are never loaded)
+        List<ProductDTO> products = cartRepository.findCartProductsByCartId(cart.getCartId());
 
-        // 5. Set product list into CartDTO
+        // 4. Set product list into CartDTO
         cartDTO.setProducts(products);
 
         return cartDTO;
@@ -165,24 +153,27 @@ public class CartServiceImpl implements CartService{
         // Extract cartId from the fetched cart
         Long cartId = userCart.getCartId();
 
-        // Re-fetch the cart from DB (this is redundant since userCart already has the cart,
-        // but here it's being done to ensure it exists & is fully managed by JPA)
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("cart", "cartId", cartId));
+        // Re-fetch the cart with its items and their products (fetch plan "Cart.itemsWithProducts"),
+        // since all of them are mapped into the response below
+        Cart cart = cartRepository.findCartWithItemsByCartId(cartId);
+        if (cart == null) {
+            throw new ResourceNotFoundException("cart", "cartId", cartId);
+        }
 
         // Fetch product by productId, or throw exception if it doesn't exist
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
         // If product is out of stock
-        if (product.getQuantity() == 0) {
+        long available = availableStock(product);
+        if (available == 0) {
             throw new APIException(product.getProductName() + " is not available");
         }
 
         // If user tries to add more quantity than available stock
-        if (product.getQuantity() < quantity) {
+        if (available < quantity) {
             throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+                    + " less than or equal to the quantity " + available + ".");
         }
 
         // Fetch the existing CartItem for this product in the user's cart
@@ -221,18 +212,8 @@ public class CartServiceImpl implements CartService{
         }
 
         // Convert cart entity to DTO
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-        // Map each cart item’s product to ProductDTO with the updated quantity
-        List<CartItem> cartItems = cart.getCartItems();
-        Stream<ProductDTO> productDTOStream = cartItems.stream().map(item -> {
-            ProductDTO prd = modelMapper.map(item.getProduct(), ProductDTO.class);
-            prd.setQuantity(item.getQuantity()); // override product stock with cart quantity
-            return prd;
-        });
-
-        // Set the products inside CartDTO
-        cartDTO.setProducts(productDTOStream.toList());
+        // (each cart item’s product becomes a ProductDTO with the cart quantity overriding product stock)
+        CartDTO cartDTO = cartMapper.toDto(cart);
 
         // Return the final updated cart
         return cartDTO;
@@ -268,30 +249,38 @@ public class CartServiceImpl implements CartService{
         return "Product " + cartItem.getProduct().getProductName() + " removed from the cart!!";
     }
 
+    @Transactional
     @Override
-    public void updateProductInCarts(Long cartId, Long productId) {
-        // ✅ 1. Fetch the cart by ID
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-        // ✅ 2. Fetch the product by ID
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-        // ✅ 3. Find the cart item (bridge between Cart and Product)
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+    public int repriceProductInCarts(Long productId, int batchSize) {
+        // 1. Pick up to batchSize carts still holding the product at an old price
+        List<Long> cartIds = cartItemRepository.findStaleCartIdsByProductId(productId, PageRequest.of(0, batchSize));
+        if (cartIds.isEmpty()) {
+            return 0;
+        }
+
+        // 2. Move their lines to the product's current special price
+        cartItemRepository.repriceCartItems(productId, cartIds);
+
+        // 3. Recompute the totals of just those carts
+        cartRepository.recalculateTotalPrices(cartIds);
+
+        // 4. Return how many carts were repriced in this batch
+        return cartIds.size();
+    }
+
+
+    @Transactional
+    @Override
+    public boolean repriceCart(Long cartId) {
+        // 1. Nothing to do unless a line is still at an old product price (the common case: one cheap read)
+        if (!cartItemRepository.existsStaleCartItemByCartId(cartId)) {
+            return false;
         }
-        // ✅ 4. Subtract the old product price from the cart total
-        double cartPrice = cart.getTotalPrice()
-                - (cartItem.getProductPrice() * cartItem.getQuantity());
-        // ✅ 5. Update the cart item with the latest product special price
-        cartItem.setProductPrice(product.getSpecialPrice());
-
-        // ✅ 6. Add the updated product total back to the cart
-        cart.setTotalPrice(cartPrice
-                + (cartItem.getProductPrice() * cartItem.getQuantity()));
-        // ✅ 7. Save the updated cart item (and cascaded cart total if needed)
-        cartItem = cartItemRepository.save(cartItem);
+        // 2. Move the lines to the current prices and recompute the total
+        //    (clears the persistence context, so callers must re-read the cart)
+        cartItemRepository.repriceCartItemsByCartId(cartId);
+        cartRepository.recalculateTotalPrices(List.of(cartId));
+        return true;
     }
 
 
@@ -300,16 +289,21 @@ public class CartServiceImpl implements CartService{
      */
     private Cart createCart(){
         // Try to find an existing cart using the logged-in user's email
-        Cart userCart=cartRepository.findCartByEmail(authUtil.loggedInEmail());
+        Cart userCart=cartRepository.findCartWithItemsByEmail(authUtil.loggedInEmail());
         if(userCart!=null){
             return userCart;
         }
         // Create a new cart for the user with total price set to 0
         Cart cart=new Cart();
         cart.setTotalPrice(0.00);
-        cart.setUser(authUtil.loggedInUser());
+        cart.setUser(authUtil.loggedInUserReference());
         Cart newCart = cartRepository.save(cart);
         // Save the new cart in the database and return it
         return newCart;
     }
+
+    // During a flash sale the product row is only written periodically; the live stock is in memory
+    private long availableStock(Product product) {
+        return flashSaleInventory.available(product.getProductId()).orElse(product.getQuantity());
+    }
 }
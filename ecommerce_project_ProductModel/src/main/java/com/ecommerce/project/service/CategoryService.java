@@ -8,6 +8,8 @@ public interface CategoryService {
 
     public CategoryResponse getAllcategories(Integer pageNumber,Integer pageSize,String sortBy,String sortOrder);
 
+    public CategoryResponse getAllCategoriesByCursor(String after, Integer pageSize, String sortBy, String sortOrder, boolean includeTotal);
+
     public CategoryDTO createCategory(CategoryDTO categoryRequest);
 
     CategoryDTO deleteCategory(Long categoryId);
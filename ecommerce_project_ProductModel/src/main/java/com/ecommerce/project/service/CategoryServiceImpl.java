@@ -1,21 +1,22 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.cache.ProductCatalogCache;
 import com.ecommerce.project.exception.APIException;
 import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.mapper.CategoryMapper;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.CategoryResponse;
 import com.ecommerce.project.repository.CategoryRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.search.ProductSearchIndex;
+import com.ecommerce.project.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -28,7 +29,19 @@ public class CategoryServiceImpl implements CategoryService {
 
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    //sort keys allowed in cursor listings, with the type their cursor value is decoded to
+    //all NOT NULL columns: the keyset query cannot continue after a null key
+    private static final Map<String, Class<?>> CURSOR_SORT_KEYS = Map.of(
+            "categoryId", Long.class,
+            "categoryName", String.class);
 
     List<Category> categories = new ArrayList<>();
     public long nextId = 1L;
@@ -44,17 +57,14 @@ public class CategoryServiceImpl implements CategoryService {
         //pageAble
         Pageable pageable=PageRequest.of(pageNumber,pageSize,sortByAndOrder);
 
-        //page
-        Page<Category>categoryPage=categoryRepository.findAll(pageable);
+        //page---->projected straight into CategoryDTO
+        Page<CategoryDTO>categoryPage=categoryRepository.findAllCategoryDTOs(pageable);
 
-        List<Category>categories=categoryPage.getContent();
-        if(categories.isEmpty()){
+        List<CategoryDTO>categoryList=categoryPage.getContent();
+        if(categoryList.isEmpty()){
             throw new APIException("The categories are empty for now!");
         }
 
-        //convert Category entity to CategoryRequestDto using model Mapper
-        List<CategoryDTO> categoryList = categories.stream().
-                map(category -> modelMapper.map(category, CategoryDTO.class)).toList();
         CategoryResponse categoryResponse =new CategoryResponse();
         categoryResponse.setContent(categoryList);
         categoryResponse.setPageNumber(categoryPage.getNumber());
@@ -66,11 +76,43 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryResponse;
     }
 
+    @Override
+    public CategoryResponse getAllCategoriesByCursor(String after, Integer pageSize, String sortBy, String sortOrder, boolean includeTotal) {
+        if (!CURSOR_SORT_KEYS.containsKey(sortBy)) {
+            throw new APIException("Cursor listing cannot be sorted by " + sortBy);
+        }
+        //sort by the requested key, with categoryId as tie breaker so the cursor is unique
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = sortBy.equals("categoryId")
+                ? Sort.by(direction, sortBy)
+                : Sort.by(direction, sortBy).and(Sort.by(direction, "categoryId"));
+
+        KeysetScrollPosition position = KeysetCursor.decode(after, CURSOR_SORT_KEYS);
+        Window<Category> window = categoryRepository.findAllBy(position, sort, Limit.of(pageSize));
+
+        List<CategoryDTO> categoryList = window.getContent().stream()
+                .map(categoryMapper::toDto).toList();
+        CategoryResponse categoryResponse = new CategoryResponse();
+        categoryResponse.setContent(categoryList);
+        categoryResponse.setPageSize(pageSize);
+        //COUNT(*) only when the client asks for it
+        if (includeTotal) {
+            long totalItems = categoryRepository.count();
+            categoryResponse.setTotalItems(totalItems);
+            categoryResponse.setTotalPages((int) Math.ceil((double) totalItems / pageSize));
+        }
+        categoryResponse.setLastPage(!window.hasNext());
+        if (window.hasNext() && !window.isEmpty()) {
+            categoryResponse.setNextCursor(KeysetCursor.encode(window.positionAt(window.size() - 1)));
+        }
+        return categoryResponse;
+    }
+
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
 
         //convert CategoryDTO to entity
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
 
         Category foundCategory= categoryRepository.findByCategoryName(category.getCategoryName());
        if(foundCategory!=null){
@@ -79,7 +121,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category savedCategory = categoryRepository.save(category);
 
         //need to return categoryDto --->hence convert Category to categoryDto
-        CategoryDTO savedCategoryDto = modelMapper.map(savedCategory, CategoryDTO.class);
+        CategoryDTO savedCategoryDto = categoryMapper.toDto(savedCategory);
         return savedCategoryDto;
     }
 
@@ -92,9 +134,14 @@ public class CategoryServiceImpl implements CategoryService {
                       "category","categoryId",categoryId
                 ));
         categoryRepository.delete(categoryFound);
+        //deleting a category cascades to its products---->drop them from the search index and the cached pages
+        if (categoryFound.getProducts() != null) {
+            categoryFound.getProducts().forEach(product -> productSearchIndex.remove(product.getProductId()));
+        }
+        productCatalogCache.invalidateAfterCommit();
 
         //convert Category to CategoryDto--->Since the return type is CategoryDto
-        CategoryDTO categoryDTO=modelMapper.map(categoryFound,CategoryDTO.class);
+        CategoryDTO categoryDTO=categoryMapper.toDto(categoryFound);
 
         return categoryDTO;
     }
@@ -106,7 +153,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category categoryFromDB = categoryRepository.findById(categoryId).orElseThrow(() -> new ResourceNotFoundException("Category", "CategoryId", categoryId));
 
         //input is CategoryDto--->convert to entity
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
 
         //find the category
 
@@ -115,7 +162,7 @@ public class CategoryServiceImpl implements CategoryService {
         categoryRepository.save(categoryFromDB);
 
         CategoryDTO dto=new CategoryDTO();
-//        CategoryDTO categoryDTO1 = modelMapper.map(categoryFromDB, CategoryDTO.class);
+//        CategoryDTO categoryDTO1 = categoryMapper.toDto(categoryFromDB);
         dto.setCategoryId(categoryId);
         dto.setCategoryName(categoryFromDB.getCategoryName());
         return dto;
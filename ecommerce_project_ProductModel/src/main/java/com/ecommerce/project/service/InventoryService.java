@@ -0,0 +1,12 @@
+package com.ecommerce.project.service;
+
+import java.util.Map;
+
+public interface InventoryService {
+
+    void reserve(Map<Long, Integer> quantities);
+
+    void reserve(Map<Long, Integer> quantities, long firstOrderItemId);
+
+    void release(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,183 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.inventory.FlashSaleInventory;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Savepoint;
+import java.util.*;
+
+/**
+ * Reserves stock for a whole cart with one conditional UPDATE.
+ * <p>
+ * Every product is decremented only if it still has enough stock, and the reservation succeeds
+ * only if every row was updated. Otherwise the statement is rolled back to a savepoint and nothing
+ * is reserved. The UPDATE runs on the caller's connection and commits with the caller's
+ * transaction (e.g. the order), so a checkout holds one pooled connection, and stock is never
+ * taken for an order that did not commit. Callers reserve as late in their transaction as they
+ * can, to keep the product rows locked briefly. Products on flash sale are reserved in memory by
+ * {@link FlashSaleInventory} instead.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
+
+    // joins the caller's transaction, or starts one when there is none
+    private TransactionTemplate callerTransaction;
+
+    @PostConstruct
+    void init() {
+        callerTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void reserve(Map<Long, Integer> quantities) {
+        // not for order lines: there is nothing a flash sale could miss on recovery
+        reserve(quantities, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void reserve(Map<Long, Integer> quantities, long firstOrderItemId) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        // 1. Products on flash sale come out of their in-memory stock, without touching their rows
+        Map<Long, Integer> fromDatabase = flashSaleInventory.reserve(quantities, firstOrderItemId);
+        if (fromDatabase.isEmpty()) {
+            return;
+        }
+        try {
+            reserveInDatabase(fromDatabase);
+        } catch (APIException e) {
+            // inside a transaction the rollback gives the flash sale units back
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                Map<Long, Integer> fromFlashSales = new HashMap<>(quantities);
+                fromFlashSales.keySet().removeAll(fromDatabase.keySet());
+                flashSaleInventory.release(fromFlashSales);
+            }
+            throw e;
+        }
+    }
+
+    private void reserveInDatabase(Map<Long, Integer> quantities) {
+        // 2. Sorted by productId, so concurrent reservations lock shared rows in the same order
+        SortedMap<Long, Integer> sorted = new TreeMap<>(quantities);
+
+        // 3. Decrement every product that has enough stock, all in one statement;
+        //    roll back to a savepoint unless every product was decremented. The caller's rollback
+        //    undoes it too, so there is nothing to hand back by hand.
+        //    (savepoints are taken on the connection: the JPA dialect has no nested transactions)
+        Boolean reserved = callerTransaction.execute(status -> jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            int updated = jdbcTemplate.update(conditionalDecrement(sorted.size()), decrementArgs(sorted));
+            if (updated != sorted.size()) {
+                connection.rollback(savepoint);
+                return false;
+            }
+            connection.releaseSavepoint(savepoint);
+            return true;
+        }));
+        if (!Boolean.TRUE.equals(reserved)) {
+            throw new APIException(shortageMessage(sorted));
+        }
+    }
+
+    @Override
+    public void release(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        SortedMap<Long, Integer> sorted = new TreeMap<>(quantities);
+        try {
+            callerTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.update(increment(sorted.size()), incrementArgs(sorted)));
+        } catch (RuntimeException e) {
+            logger.error("Could not release reserved stock {}", sorted, e);
+            throw e;
+        }
+    }
+
+    // UPDATE products SET quantity = quantity - CASE product_id WHEN ? THEN ? ... END
+    // WHERE product_id IN (?, ...) AND quantity >= CASE product_id WHEN ? THEN ? ... END
+    //   AND NOT EXISTS (a flash sale of the product)
+    // (a sale that started after the flash sale check above holds the stock now; the row is not touched)
+    private static String conditionalDecrement(int products) {
+        String amount = caseByProduct(products);
+        return "UPDATE products SET quantity = quantity - " + amount +
+                " WHERE product_id IN (" + placeholders(products) + ") AND quantity >= " + amount +
+                " AND NOT EXISTS (SELECT 1 FROM flash_sales f WHERE f.product_id = products.product_id)";
+    }
+
+    private static String increment(int products) {
+        return "UPDATE products SET quantity = quantity + " + caseByProduct(products) +
+                " WHERE product_id IN (" + placeholders(products) + ")";
+    }
+
+    private static String caseByProduct(int products) {
+        return "CASE product_id" + " WHEN ? THEN ?".repeat(products) + " END";
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] decrementArgs(SortedMap<Long, Integer> quantities) {
+        List<Object> args = new ArrayList<>();
+        addCase(args, quantities);
+        args.addAll(quantities.keySet());
+        addCase(args, quantities);
+        return args.toArray();
+    }
+
+    private static Object[] incrementArgs(SortedMap<Long, Integer> quantities) {
+        List<Object> args = new ArrayList<>();
+        addCase(args, quantities);
+        args.addAll(quantities.keySet());
+        return args.toArray();
+    }
+
+    private static void addCase(List<Object> args, SortedMap<Long, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            args.add(productId);
+            args.add(quantity);
+        });
+    }
+
+    private String shortageMessage(SortedMap<Long, Integer> quantities) {
+        // only read on failure, to tell the user which product ran out
+        List<String> shortages = new ArrayList<>();
+        jdbcTemplate.query("SELECT product_id, product_name, quantity FROM products WHERE product_id IN (" +
+                        placeholders(quantities.size()) + ")",
+                rs -> {
+                    int requested = quantities.get(rs.getLong("product_id"));
+                    int available = rs.getInt("quantity");
+                    if (available < requested) {
+                        shortages.add(rs.getString("product_name") + " (available " + available + ", requested " + requested + ")");
+                    }
+                },
+                quantities.keySet().toArray());
+        if (shortages.isEmpty()) {
+            return "Some products in the cart are no longer available";
+        }
+        return "Not enough stock for " + String.join(", ", shortages);
+    }
+}
@@ -2,12 +2,19 @@ package com.ecommerce.project.service;
 
 
 import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderHistoryResponse;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+
 @Service
 public interface OrderService {
 
     @Transactional
     OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName, String pgPaymentId, String pgStatus, String pgResponseMessage);
+
+    OrderHistoryResponse getOrders(String emailId, String orderStatus, LocalDate fromDate, LocalDate toDate, String after, Integer pageSize);
+
+    OrderDTO getOrder(String emailId, Long orderId);
 }
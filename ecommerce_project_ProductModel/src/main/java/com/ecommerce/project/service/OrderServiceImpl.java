@@ -1,24 +1,41 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.exception.APIException;
 import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.mapper.OrderMapper;
 import com.ecommerce.project.model.*;
 import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderHistoryResponse;
 import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.OrderSummaryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.outbox.OutboxPublisher;
 import com.ecommerce.project.repository.*;
+import com.ecommerce.project.util.KeysetCursor;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.security.authorization.method.AuthorizeReturnObject;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService{
 
+    private static final Map<String, Class<?>> ORDER_CURSOR_KEYS = Map.of("orderDate", String.class, "orderId", Long.class);
+
+    private static final Comparator<OrderSummaryDTO> NEWEST_FIRST = Comparator.comparing(OrderSummaryDTO::getOrderDate,
+                    Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(OrderSummaryDTO::getOrderId).reversed();
+
     @Autowired
     private CartRepository cartRepository;
 
@@ -32,29 +49,53 @@ public class OrderServiceImpl implements OrderService{
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+
+    @Autowired
+    private InventoryService inventoryService;
+
 
     @Autowired
     private CartService cartService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private OrderMapper orderMapper;
 
     @Override
     @Transactional
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName,
                                String pgPaymentId, String pgStatus, String pgResponseMessage) {
         // 1️⃣ Get the user's cart using their email
-        Cart cart=cartRepository.findCartByEmail(emailId);
+        //    (fetch plan "Cart.itemsWithProducts"---->items and products come in the same select)
+        Cart cart=cartRepository.findCartWithItemsByEmail(emailId);
         if (cart==null){
             throw new  ResourceNotFoundException("Cart","email",emailId);
         }
+        // 1️⃣a Charge current prices: reprice the cart if a price change has not reached it yet, then re-read it
+        if (cartService.repriceCart(cart.getCartId())){
+            cart=cartRepository.findCartWithItemsByEmail(emailId);
+        }
+        List<CartItem> cartItems = cart.getCartItems();
+        if(cartItems.isEmpty()){
+            throw new APIException("cart is empty");
+        }
         // 2️⃣ Get the selected address for delivery
         Address address=addressRepository.findById(addressId).orElseThrow(()->new ResourceNotFoundException("Address","addressId",addressId));
         // 3️⃣ Create a new Order object and populate its fields
@@ -74,10 +115,6 @@ public class OrderServiceImpl implements OrderService{
         Order savedOrder  = orderRepository.save(order);
 
         // 5️⃣ Move items from Cart to OrderItem list
-        List<CartItem> cartItems = cart.getCartItems();
-        if(cartItems==null){
-            throw new APIException("cart is empty");
-        }
         List<OrderItem>orderItems=new ArrayList<>();
         for(CartItem cartItem:cartItems){
             OrderItem orderItem=new OrderItem();
@@ -88,34 +125,145 @@ public class OrderServiceImpl implements OrderService{
             orderItem.setOrder(savedOrder);
             orderItems.add(orderItem);
         }
-
+        //    ids are assigned up front, so Hibernate writes all lines in one JDBC batch
         orderItems=orderItemRepository.saveAll(orderItems);
 
+        // 5️⃣a Reserve stock for every item in one conditional update (all or nothing);
+        //     part of this transaction, and done last so the product rows stay locked only until commit
+        Map<Long,Integer> quantities=new HashMap<>();
+        cartItems.forEach(item->quantities.merge(item.getProduct().getProductId(),item.getQuantity(),Integer::sum));
+        //     (a flash sale that started after the lines got their ids refuses them: see FlashSaleInventory)
+        long firstOrderItemId=orderItems.stream().mapToLong(OrderItem::getOrderItemId).min().orElse(Long.MAX_VALUE);
+        inventoryService.reserve(quantities,firstOrderItemId);
 
-       // 6️⃣ Update stock of each product and clear from cart
-            cart.getCartItems().forEach(item->{
-            int quantity= item.getQuantity();
-            Product product=item.getProduct();
-            product.setQuantity(product.getQuantity()-quantity);
-            productRepository.save(product);
-
-                // remove product from cart
-            cartService.deleteProductFromCart(cart.getCartId(),product.getProductId());
-        });
-
+        // 5️⃣b Record the order and the stock it took for post-checkout work (emails, analytics);
+        //     written in this transaction, delivered by the outbox relay after commit
+        outboxPublisher.publish("Order",savedOrder.getOrderId(),OutboxEvent.ORDER_PLACED,orderPlaced(savedOrder,orderItems));
 
+        // 6️⃣ Empty the cart: one DELETE for all its lines (stock was already taken in 5️⃣a)
+        cartItemRepository.deleteCartItemsByCartId(cart.getCartId());
+        cart.getCartItems().clear();
+        cart.setTotalPrice(0.0);
 
         // 7️⃣ Prepare and return response DTO (summary)
-        OrderDTO orderDTO=modelMapper.map(savedOrder,OrderDTO.class);
+        OrderDTO orderDTO=orderMapper.toDto(savedOrder);
         // For each order item, convert it to OrderItemDTO and add it to the orderDTO
         orderItems.forEach(item->orderDTO.getOrderItems()
-                .add(modelMapper.map(item, OrderItemDTO.class)));
+                .add(orderMapper.toDto(item)));
 
         // Set the address ID in the DTO (since DTO might only store the ID instead of the full Address object)
         orderDTO.setAddressId(addressId);
         return orderDTO;
+    }
 
+    private static Map<String, Object> orderPlaced(Order order, List<OrderItem> orderItems) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getOrderId());
+        payload.put("email", order.getEmail());
+        payload.put("orderDate", order.getOrderDate().toString());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("items", orderItems.stream().map(item -> Map.of(
+                "productId", item.getProduct().getProductId(),
+                "quantity", item.getQuantity(),
+                "price", item.getOrderProductPrice())).toList());
+        return payload;
+    }
+
+    @Override
+    public OrderHistoryResponse getOrders(String emailId, String orderStatus, LocalDate fromDate, LocalDate toDate,
+                                          String after, Integer pageSize) {
+        if (pageSize < 1) {
+            throw new APIException("pageSize must be at least 1");
+        }
+        // larger pages are cut down, which also keeps pageSize + 1 from overflowing
+        pageSize = Math.min(pageSize, AppConstants.MAX_PAGE_SIZE);
+        // 1. Decode where the previous page stopped (orders are listed newest first by orderDate, orderId)
+        KeysetScrollPosition position = KeysetCursor.decode(after, ORDER_CURSOR_KEYS);
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (!position.isInitial()) {
+            Map<String, Object> keys = position.getKeys();
+            if (!keys.containsKey("orderDate") || keys.get("orderId") == null) {
+                throw new APIException("Invalid cursor");
+            }
+            try {
+                // a null date: the previous page ended among the undated orders, which come last
+                String date = (String) keys.get("orderDate");
+                afterDate = date == null ? null : LocalDate.parse(date);
+            } catch (DateTimeParseException e) {
+                throw new APIException("Invalid cursor");
+            }
+            afterId = (Long) keys.get("orderId");
+        }
+
+        // 2. Read one row more than the page size to learn whether another page follows
+        //    (summary projection: items, payment and address are never loaded)
+        List<OrderSummaryDTO> rows = orderRepository.findOrderSummaries(emailId, orderStatus, fromDate, toDate,
+                afterDate, afterId, Limit.of(pageSize + 1));
+
+        // 2a. Archived orders continue the listing; not read when the page ends above every archived date
+        if (rows.size() <= pageSize || rows.get(pageSize).getOrderDate() == null
+                || !rows.get(pageSize).getOrderDate().isAfter(latestArchivedDate())) {
+            List<OrderSummaryDTO> archived = archivedOrderRepository.findOrderSummaries(emailId, orderStatus, fromDate, toDate,
+                    afterDate, afterId, Limit.of(pageSize + 1));
+            if (!archived.isEmpty()) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(archived);
+                rows.sort(NEWEST_FIRST);
+                rows = rows.subList(0, Math.min(rows.size(), pageSize + 1));
+            }
+        }
+        boolean lastPage = rows.size() <= pageSize;
+        List<OrderSummaryDTO> content = lastPage ? rows : new ArrayList<>(rows.subList(0, pageSize));
+
+        // 3. The next cursor holds the sort keys of the last row on this page
+        String nextCursor = null;
+        if (!lastPage) {
+            OrderSummaryDTO last = content.get(content.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("orderDate", last.getOrderDate() == null ? null : last.getOrderDate().toString());
+            keys.put("orderId", last.getOrderId());
+            nextCursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+        }
+        return new OrderHistoryResponse(content, pageSize, lastPage, nextCursor);
+    }
 
+    @Override
+    public OrderDTO getOrder(String emailId, Long orderId) {
+        // 1. Fetch the order with its items, products, payment and address in a single select
+        Order order = orderRepository.findWithDetailsByOrderId(orderId);
+
+        // 1a. Not a live order: it may have been archived
+        if (order == null) {
+            return getArchivedOrder(emailId, orderId);
+        }
+
+        // 2. Users only see their own orders (emailId is null for admins)
+        if (emailId != null && !emailId.equals(order.getEmail())) {
+            throw new ResourceNotFoundException("Order", "orderId", orderId);
+        }
+        return orderMapper.toDto(order);
+    }
+
+    private OrderDTO getArchivedOrder(String emailId, Long orderId) {
+        ArchivedOrder order = archivedOrderRepository.findById(orderId).orElse(null);
+        if (order == null || (emailId != null && !emailId.equals(order.getEmail()))) {
+            throw new ResourceNotFoundException("Order", "orderId", orderId);
+        }
+        OrderDTO orderDTO = orderMapper.toDto(order);
+        orderDTO.setPayment(order.getPaymentId() == null ? null : orderMapper.toPaymentDto(order));
+
+        // the items, then their products in one select (a product deleted since is left out)
+        List<ArchivedOrderItem> items = archivedOrderItemRepository.findByOrderId(orderId);
+        Map<Long, ProductDTO> products = productRepository.findProductDTOsByIds(
+                        items.stream().map(ArchivedOrderItem::getProductId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(ProductDTO::getProductId, Function.identity()));
+        orderDTO.setOrderItems(items.stream().map(item -> orderMapper.toDto(item, products.get(item.getProductId()))).toList());
+        return orderDTO;
+    }
 
+    private LocalDate latestArchivedDate() {
+        LocalDate latest = archivedOrderRepository.findLatestOrderDate();
+        return latest == null ? LocalDate.MIN : latest;
     }
 }
@@ -0,0 +1,123 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.util.StreamingJdbc;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Streams the whole catalog (products with their category) as NDJSON or CSV.
+ * <p>
+ * Rows are read through a forward-only, read-only JDBC cursor that streams them (see
+ * {@link StreamingJdbc}) and written to the response as they arrive, so memory use does not depend on the size of the catalog.
+ */
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final String EXPORT_QUERY =
+            "SELECT p.product_id, p.product_name, p.description, p.quantity, p.price, p.discount, p.special_price, p.image, " +
+            "c.category_id, c.category_name " +
+            "FROM products p JOIN categories c ON c.category_id = p.category_id " +
+            "ORDER BY p.product_id";
+
+    private static final String CSV_HEADER =
+            "productId,productName,description,quantity,price,discount,specialPrice,image,categoryId,categoryName";
+
+    private final JdbcTemplate exportJdbcTemplate;
+
+    //the servlet container owns the response stream, so the generator must not close it
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    @Autowired
+    public ProductExportServiceImpl(DataSource dataSource, @Value("${project.export.fetchSize:1000}") int fetchSize) {
+        //dedicated template so streaming only applies to the export cursor
+        this.exportJdbcTemplate = StreamingJdbc.template(dataSource, fetchSize);
+    }
+
+    @Override
+    public void exportProducts(OutputStream outputStream, String format) throws IOException {
+        if (format.equalsIgnoreCase("ndjson")) {
+            exportNdjson(outputStream);
+        } else if (format.equalsIgnoreCase("csv")) {
+            exportCsv(outputStream);
+        } else {
+            throw new APIException("Unsupported export format: " + format);
+        }
+    }
+
+    private void exportNdjson(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            exportJdbcTemplate.query(EXPORT_QUERY, (ResultSet rs) -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("productId", rs.getLong("product_id"));
+                    generator.writeStringField("productName", rs.getString("product_name"));
+                    generator.writeStringField("description", rs.getString("description"));
+                    generator.writeNumberField("quantity", rs.getInt("quantity"));
+                    generator.writeNumberField("price", rs.getDouble("price"));
+                    generator.writeNumberField("discount", rs.getDouble("discount"));
+                    generator.writeNumberField("specialPrice", rs.getDouble("special_price"));
+                    generator.writeStringField("image", rs.getString("image"));
+                    generator.writeNumberField("categoryId", rs.getLong("category_id"));
+                    generator.writeStringField("categoryName", rs.getString("category_name"));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void exportCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        exportJdbcTemplate.query(EXPORT_QUERY, (ResultSet rs) -> {
+            try {
+                writer.write(csvRow(rs));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static String csvRow(ResultSet rs) throws SQLException {
+        return rs.getLong("product_id") + "," +
+                csv(rs.getString("product_name")) + "," +
+                csv(rs.getString("description")) + "," +
+                rs.getInt("quantity") + "," +
+                rs.getDouble("price") + "," +
+                rs.getDouble("discount") + "," +
+                rs.getDouble("special_price") + "," +
+                csv(rs.getString("image")) + "," +
+                rs.getLong("category_id") + "," +
+                csv(rs.getString("category_name")) + "\n";
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
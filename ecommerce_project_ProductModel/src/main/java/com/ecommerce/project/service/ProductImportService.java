@@ -0,0 +1,11 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.ProductImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    ProductImportResponse importProducts(Long categoryId, InputStream inputStream, String format) throws IOException;
+}
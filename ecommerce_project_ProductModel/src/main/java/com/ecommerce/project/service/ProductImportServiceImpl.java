@@ -0,0 +1,245 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.cache.ProductCatalogCache;
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportResponse;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.search.ProductSearchIndex;
+import com.ecommerce.project.util.TimeOrderedIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Streams a product file (NDJSON or CSV) into a category.
+ * <p>
+ * The file is read line by line and written in JDBC batches, so only one batch is held in memory.
+ * Duplicate names (already in the category or earlier in the file) are rejected with a hash lookup.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (product_id, product_name, description, quantity, price, discount, special_price, image, category_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Value("${project.import.batchSize:500}")
+    private int batchSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public ProductImportResponse importProducts(Long categoryId, InputStream inputStream, String format) throws IOException {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("category", "categoryId", categoryId);
+        }
+        boolean csv;
+        if (format.equalsIgnoreCase("csv")) {
+            csv = true;
+        } else if (format.equalsIgnoreCase("ndjson")) {
+            csv = false;
+        } else {
+            throw new APIException("Unsupported import format: " + format);
+        }
+
+        // names already in the category + names accepted from this file
+        Set<String> knownNames = new HashSet<>(productRepository.findProductNamesByCategoryId(categoryId));
+
+        ProductImportResponse response = new ProductImportResponse();
+        List<ProductDTO> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            List<String> csvHeader = null;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && csvHeader == null) {
+                    csvHeader = parseCsvLine(line).stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+                    continue;
+                }
+                response.setTotalRows(response.getTotalRows() + 1);
+
+                try {
+                    ProductDTO productDTO = csv ? fromCsv(csvHeader, parseCsvLine(line)) : fromJson(line);
+                    validate(productDTO);
+                    if (!knownNames.add(productDTO.getProductName())) {
+                        throw new APIException("Product already exist");
+                    }
+                    //calculate specialPrice =Special Price = Price - (Price × (Discount / 100))
+                    productDTO.setSpecialPrice(productDTO.getPrice() - (productDTO.getPrice() * (productDTO.getDiscount() / 100)));
+                    productDTO.setImage("default.png");
+                    batch.add(productDTO);
+                } catch (APIException | IllegalArgumentException e) {
+                    reject(response, lineNumber, e.getMessage());
+                }
+
+                if (batch.size() >= batchSize) {
+                    flush(categoryId, batch, response);
+                }
+            }
+        }
+        flush(categoryId, batch, response);
+
+        productCatalogCache.invalidateAfterCommit();
+        return response;
+    }
+
+    /**
+     * Writes one batch with a single JDBC batch statement, then adds the new rows to the search index.
+     */
+    private void flush(Long categoryId, List<ProductDTO> batch, ProductImportResponse response) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, batch, batch.size(), (ps, productDTO) -> {
+            ps.setLong(1, TimeOrderedIdGenerator.nextId());
+            ps.setString(2, productDTO.getProductName());
+            ps.setString(3, productDTO.getDescription());
+            ps.setInt(4, productDTO.getQuantity());
+            ps.setDouble(5, productDTO.getPrice());
+            ps.setDouble(6, productDTO.getDiscount());
+            ps.setDouble(7, productDTO.getSpecialPrice());
+            ps.setString(8, productDTO.getImage());
+            ps.setLong(9, categoryId);
+        });
+        response.setImportedRows(response.getImportedRows() + batch.size());
+
+        List<String> names = batch.stream().map(ProductDTO::getProductName).toList();
+        productRepository.findProductDTOsByCategoryIdAndNames(categoryId, names).forEach(productSearchIndex::index);
+        batch.clear();
+    }
+
+    private void reject(ProductImportResponse response, long lineNumber, String message) {
+        response.setFailedRows(response.getFailedRows() + 1);
+        if (response.getErrors().size() < MAX_REPORTED_ERRORS) {
+            response.getErrors().add(new ProductImportResponse.RowError(lineNumber, message));
+        }
+    }
+
+    private ProductDTO fromJson(String line) {
+        try {
+            return objectMapper.readValue(line, ProductDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new APIException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ProductDTO fromCsv(List<String> header, List<String> values) {
+        if (values.size() != header.size()) {
+            throw new APIException("Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), values.get(i).trim());
+        }
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductName(row.get("productname"));
+        productDTO.setDescription(row.get("description"));
+        productDTO.setQuantity(parseNumber(row, "quantity").intValue());
+        productDTO.setPrice(parseNumber(row, "price").doubleValue());
+        productDTO.setDiscount(row.containsKey("discount") && !row.get("discount").isEmpty()
+                ? parseNumber(row, "discount").doubleValue() : 0);
+        return productDTO;
+    }
+
+    private Number parseNumber(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null || value.isEmpty()) {
+            throw new APIException(column + " is required");
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new APIException(column + " is not a number: " + value);
+        }
+    }
+
+    /**
+     * Same rules as the {@code Product} entity constraints, plus sane numbers.
+     */
+    private void validate(ProductDTO productDTO) {
+        if (productDTO.getProductName() == null || productDTO.getProductName().isBlank()
+                || productDTO.getProductName().length() < 3) {
+            throw new APIException("productName should have least 3 characters");
+        }
+        if (productDTO.getDescription() == null || productDTO.getDescription().isBlank()
+                || productDTO.getDescription().length() < 6) {
+            throw new APIException("description should have least 6 characters");
+        }
+        if (productDTO.getQuantity() == null || productDTO.getQuantity() < 0) {
+            throw new APIException("quantity must be zero or more");
+        }
+        if (productDTO.getPrice() < 0) {
+            throw new APIException("price must be zero or more");
+        }
+        if (productDTO.getDiscount() < 0 || productDTO.getDiscount() > 100) {
+            throw new APIException("discount must be between 0 and 100");
+        }
+    }
+
+    /**
+     * Splits one CSV line, honouring double quoted fields and "" escapes.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -15,6 +15,10 @@ public interface ProductService {
 
     ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+    ProductResponse getAllProductByCursor(String after, Integer pageSize, String sortBy, String sortOrder, boolean includeTotal);
+
+    ProductResponse searchByCategoryByCursor(Long categoryId, String after, Integer pageSize, String sortBy, String sortOrder, boolean includeTotal);
+
     ProductResponse searchProductByKeyWord(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
     ProductDTO updateProduct(Product product, Long productId);
@@ -1,29 +1,32 @@
 package com.ecommerce.project.service;
 
 
+import com.ecommerce.project.cache.ProductCatalogCache;
 import com.ecommerce.project.exception.APIException;
 import com.ecommerce.project.exception.ResourceNotFoundException;
-import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.inventory.FlashSaleInventory;
+import com.ecommerce.project.mapper.ProductMapper;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
-import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
-import com.ecommerce.project.repository.CartRepository;
+import com.ecommerce.project.pricing.CartRepricingPipeline;
 import com.ecommerce.project.repository.CategoryRepository;
 import com.ecommerce.project.repository.ProductRepository;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.project.search.ProductSearchIndex;
+import com.ecommerce.project.util.KeysetCursor;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 
@@ -31,10 +34,10 @@ import java.util.stream.Collectors;
 public class ProductServiceImpl implements ProductService{
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartRepricingPipeline cartRepricingPipeline;
 
     @Autowired
-    private CartService cartService;
+    private FlashSaleInventory flashSaleInventory;
 
     @Autowired
     private ProductRepository productRepository;
@@ -43,15 +46,30 @@ public class ProductServiceImpl implements ProductService{
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
 
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
 
     @Value("${project.image}")
     private String path;
 
+    //sort keys allowed in cursor listings, with the type their cursor value is decoded to
+    //all NOT NULL columns: the keyset query cannot continue after a null key
+    private static final Map<String, Class<?>> CURSOR_SORT_KEYS = Map.of(
+            "productId", Long.class,
+            "productName", String.class,
+            "price", Double.class,
+            "specialPrice", Double.class,
+            "discount", Double.class);
+
 
     @Override
     public ProductDTO addProduct(ProductDTO productDTO, Long categoryId) {
@@ -61,17 +79,11 @@ public class ProductServiceImpl implements ProductService{
 
         //add validation --->if same product is added again--->throw ApiException-->"product Already Exists"
 
-        boolean isProductNotPresent=true;
-        List<Product> products = category.getProducts();
-        for(Product value:products){
-            if(value.getProductName().equals(productDTO.getProductName())){
-                isProductNotPresent=false;
-                break;
-            }
-        }
+        //(single EXISTS query instead of loading the lazy category.products collection)
+        boolean isProductNotPresent=!productRepository.existsByCategoryAndProductName(category,productDTO.getProductName());
 
         if(isProductNotPresent){
-            Product product=modelMapper.map(productDTO,Product.class);
+            Product product=productMapper.toEntity(productDTO);
             product.setImage("default.png");
             product.setCategory(category);
             //calculate specialPrice =Special Price = Price - (Price × (Discount / 100))
@@ -79,7 +91,9 @@ public class ProductServiceImpl implements ProductService{
             product.setSpecialPrice(specialPrice);
             //save the object
             Product savedProduct = productRepository.save(product);
-            return modelMapper.map(savedProduct,ProductDTO.class);
+            productSearchIndex.index(savedProduct);
+            productCatalogCache.invalidateAfterCommit();
+            return productMapper.toDto(savedProduct);
         }else{
             throw new APIException("Product already exist");
         }
@@ -90,21 +104,21 @@ public class ProductServiceImpl implements ProductService{
 
     @Override
     public ProductResponse getAllProduct(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        String cacheKey = "all:" + pageNumber + ":" + pageSize + ":" + sortBy + ":" + sortOrder;
+        return withCurrentStock(productCatalogCache.get(cacheKey, () -> loadAllProduct(pageNumber, pageSize, sortBy, sortOrder)));
+    }
+
+    private ProductResponse loadAllProduct(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
         Pageable pageDetails= PageRequest.of(pageNumber,pageSize,sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findAll(pageDetails);
-
-        List<Product> allProducts  = pageProducts.getContent();
-        //need to convert all the product to product dto
-        List<ProductDTO> productDTOList = allProducts.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .collect(Collectors.toList());
+        //rows come back as ProductDTO directly---->no entity loading and no mapping
+        Page<ProductDTO> pageProducts = productRepository.findAllProductDTOs(pageDetails);
 
         ProductResponse productResponse=new ProductResponse();
-        productResponse.setContent(productDTOList);
+        productResponse.setContent(pageProducts.getContent());
         productResponse.setPageNumber(pageProducts.getNumber());
         productResponse.setPageSize(pageProducts.getSize());
         productResponse.setTotalItems(pageProducts.getTotalElements());
@@ -115,10 +129,16 @@ public class ProductServiceImpl implements ProductService{
 
     @Override
     public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        String cacheKey = "category:" + categoryId + ":" + pageNumber + ":" + pageSize + ":" + sortBy + ":" + sortOrder;
+        return withCurrentStock(productCatalogCache.get(cacheKey, () -> loadByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder)));
+    }
 
-        //find the category
-        Category categoryFound = categoryRepository.findById(categoryId).orElseThrow(() ->
-                new ResourceNotFoundException("category", "categoryId", categoryId));
+    private ProductResponse loadByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+
+        //check the category exists
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("category", "categoryId", categoryId);
+        }
 
 
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
@@ -126,19 +146,12 @@ public class ProductServiceImpl implements ProductService{
                 : Sort.by(sortBy).descending();
 
         Pageable pageDetails= PageRequest.of(pageNumber,pageSize,sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByCategoryOrderByPriceAsc(categoryFound,pageDetails);
-
-        //query used to find the products by categoryId
-        List<Product> productList =pageProducts.getContent();
-
-        //convert product to product dto-->and collect it as a list
-        List<ProductDTO> productDTOList = productList.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .collect(Collectors.toList());
+        //query used to find the products by categoryId, projected straight into ProductDTO
+        Page<ProductDTO> pageProducts = productRepository.findProductDTOsByCategoryId(categoryId,pageDetails);
 
         //return the ProductResponse
         ProductResponse productResponse=new ProductResponse();
-        productResponse.setContent(productDTOList);
+        productResponse.setContent(pageProducts.getContent());
         productResponse.setPageNumber(pageProducts.getNumber());
         productResponse.setPageSize(pageProducts.getSize());
         productResponse.setTotalItems(pageProducts.getTotalElements());
@@ -150,30 +163,58 @@ public class ProductServiceImpl implements ProductService{
 
 
 
+    }
+
+    @Override
+    public ProductResponse getAllProductByCursor(String after, Integer pageSize, String sortBy, String sortOrder, boolean includeTotal) {
+        String cacheKey = "cursor-all:" + after + ":" + pageSize + ":" + sortBy + ":" + sortOrder + ":" + includeTotal;
+        return withCurrentStock(productCatalogCache.get(cacheKey, () -> {
+            Sort sort = cursorSort(sortBy, sortOrder);
+            KeysetScrollPosition position = KeysetCursor.decode(after, CURSOR_SORT_KEYS);
+            Window<Product> window = productRepository.findAllBy(position, sort, Limit.of(pageSize));
+            Long totalItems = includeTotal ? productRepository.count() : null;
+            return toCursorResponse(window, pageSize, totalItems);
+        }));
+    }
+
+    @Override
+    public ProductResponse searchByCategoryByCursor(Long categoryId, String after, Integer pageSize, String sortBy, String sortOrder, boolean includeTotal) {
+        String cacheKey = "cursor-category:" + categoryId + ":" + after + ":" + pageSize + ":" + sortBy + ":" + sortOrder + ":" + includeTotal;
+        return withCurrentStock(productCatalogCache.get(cacheKey, () -> {
+            Category categoryFound = categoryRepository.findById(categoryId).orElseThrow(() ->
+                    new ResourceNotFoundException("category", "categoryId", categoryId));
+            Sort sort = cursorSort(sortBy, sortOrder);
+            KeysetScrollPosition position = KeysetCursor.decode(after, CURSOR_SORT_KEYS);
+            Window<Product> window = productRepository.findByCategory(categoryFound, position, sort, Limit.of(pageSize));
+            Long totalItems = includeTotal ? productRepository.countByCategory(categoryFound) : null;
+            return toCursorResponse(window, pageSize, totalItems);
+        }));
     }
 
     @Override
     public ProductResponse searchProductByKeyWord(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        String cacheKey = "keyword:" + keyword.toLowerCase() + ":" + pageNumber + ":" + pageSize + ":" + sortBy + ":" + sortOrder;
+        return withCurrentStock(productCatalogCache.get(cacheKey, () -> loadByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder)));
+    }
+
+    private ProductResponse loadByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        //served from the inverted index (ranked by relevance) once it has been built
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(keyword, pageNumber, pageSize);
+        }
+
+        //index still building at startup---->fall back to the LIKE query
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByProductNameLikeIgnoreCase("%" + keyword + "%", pageDetails);
-
-
-        //getting the data from database---using query
-     // List<Product>productList= productRepository.findByProductNameLikeIgnoreCase('%'+keyword+'%');
-      List<Product> productList = pageProducts.getContent();
-        //convert product to product dto-->and collect it as a list
-        List<ProductDTO> productDTOList = productList.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .collect(Collectors.toList());
+        Page<ProductDTO> pageProducts = productRepository.findProductDTOsByNameLike("%" + keyword + "%", pageDetails);
 
         //return the ProductResponse
         ProductResponse productResponse=new ProductResponse();
-        productResponse.setContent(productDTOList);
+        productResponse.setContent(pageProducts.getContent());
         productResponse.setPageNumber(pageProducts.getNumber());
         productResponse.setPageSize(pageProducts.getSize());
         productResponse.setTotalItems(pageProducts.getTotalElements());
@@ -183,12 +224,79 @@ public class ProductServiceImpl implements ProductService{
 
     }
 
+    /**
+     * Copies a cached page with the current stock of its products. Pages are only dropped on catalog
+     * writes, while the stock changes with every order, so it is read afresh: one query by primary key
+     * per page, or the in-memory count for a product on flash sale. The cached page is left untouched.
+     */
+    private ProductResponse withCurrentStock(ProductResponse cached) {
+        if (cached.getContent() == null || cached.getContent().isEmpty()) {
+            return cached;
+        }
+        List<Long> productIds = cached.getContent().stream().map(ProductDTO::getProductId).toList();
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object[] row : productRepository.findQuantitiesByIds(productIds)) {
+            quantities.put((Long) row[0], (Integer) row[1]);
+        }
+
+        List<ProductDTO> content = cached.getContent().stream()
+                .map(dto -> {
+                    OptionalLong flashSaleStock = flashSaleInventory.available(dto.getProductId());
+                    Integer quantity = quantities.getOrDefault(dto.getProductId(), dto.getQuantity());
+                    if (flashSaleStock.isPresent()) {
+                        quantity = Math.toIntExact(flashSaleStock.getAsLong());
+                    }
+                    return new ProductDTO(dto.getProductId(), dto.getProductName(), dto.getDescription(), dto.getImage(),
+                            quantity, dto.getPrice(), dto.getDiscount(), dto.getSpecialPrice());
+                })
+                .collect(Collectors.toList());
+        return new ProductResponse(content, cached.getPageNumber(), cached.getPageSize(), cached.getTotalItems(),
+                cached.getTotalPages(), cached.isLastPage(), cached.getNextCursor());
+    }
+
+    /**
+     * Builds the keyset sort: the requested key, with productId as tie breaker so the cursor is unique.
+     */
+    private Sort cursorSort(String sortBy, String sortOrder) {
+        if (!CURSOR_SORT_KEYS.containsKey(sortBy)) {
+            throw new APIException("Cursor listing cannot be sorted by " + sortBy);
+        }
+        Sort.Direction direction = sortOrder.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals("productId") ? sort : sort.and(Sort.by(direction, "productId"));
+    }
+
+    private ProductResponse toCursorResponse(Window<Product> window, Integer pageSize, Long totalItems) {
+        List<ProductDTO> productDTOList = window.getContent().stream()
+                .map(productMapper::toDto)
+                .collect(Collectors.toList());
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(productDTOList);
+        productResponse.setPageSize(pageSize);
+        productResponse.setTotalItems(totalItems);
+        if (totalItems != null) {
+            productResponse.setTotalPages((int) Math.ceil((double) totalItems / pageSize));
+        }
+        productResponse.setLastPage(!window.hasNext());
+        if (window.hasNext() && !window.isEmpty()) {
+            productResponse.setNextCursor(KeysetCursor.encode(window.positionAt(window.size() - 1)));
+        }
+        return productResponse;
+    }
+
+    @Transactional
     @Override
     public ProductDTO updateProduct(Product product, Long productId) {
         // ✅ 1. Fetch the existing product from the database
         // If the product does not exist, throw a ResourceNotFoundException
         Product productFound = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("product", "productId", productId));
+        // The stock of a product on flash sale is held in memory and written back periodically;
+        // saving the row now would overwrite those writes
+        if (flashSaleInventory.available(productId).isPresent()) {
+            throw new APIException("End the flash sale of product " + productId + " before updating it");
+        }
         // ✅ 2. Update the product fields with the new values from the input
         productFound.setProductName(product.getProductName());
         productFound.setQuantity(product.getQuantity());
@@ -200,29 +308,15 @@ public class ProductServiceImpl implements ProductService{
 
         // ✅ 4. Save the updated product details to the database
         productRepository.save(productFound);
+        productSearchIndex.index(productFound);
+        productCatalogCache.invalidateAfterCommit();
 
-        // ✅ 5. Retrieve all carts that currently contain this product
-        // (So that their prices can be updated to reflect the new product price)
-        List<Cart>carts=cartRepository.findCartsByProductId(productId);
-
-        // 6. Convert carts to DTO (optional — for mapping convenience)
-        List<CartDTO>cartDTOS=carts.stream().map(cart -> {
-            CartDTO cartDTO=modelMapper.map(cart,CartDTO.class);
-
-            List<ProductDTO>products=cart.getCartItems()
-                    .stream()
-                    .map(p->modelMapper.map(p.getProduct(),ProductDTO.class))
-                    .collect(Collectors.toList());
-
-            cartDTO.setProducts(products);
-            return cartDTO;
-
-        }).collect(Collectors.toList());
+        // ✅ 5. Record the price change; the carts holding the product are repriced
+        // in the background once this transaction commits
+        cartRepricingPipeline.priceChanged(productId);
 
-        //  7. For each cart containing this product, update its cart item
-        cartDTOS.forEach(cart->cartService.updateProductInCarts(cart.getCartId(),productId));
-        // ✅ 8. Return the updated product mapped to a ProductDTO
-        return modelMapper.map(productFound,ProductDTO.class);
+        // ✅ 6. Return the updated product mapped to a ProductDTO
+        return productMapper.toDto(productFound);
     }
 
     @Override
@@ -232,8 +326,10 @@ public class ProductServiceImpl implements ProductService{
                 orElseThrow(() -> new ResourceNotFoundException("product", "productId", productId));
         //delete the id
         productRepository.delete(productFound);
+        productSearchIndex.remove(productId);
+        productCatalogCache.invalidateAfterCommit();
         //return the dto
-        return modelMapper.map(productFound,ProductDTO.class);
+        return productMapper.toDto(productFound);
     }
 
     @Override
@@ -250,8 +346,10 @@ public class ProductServiceImpl implements ProductService{
         productFromDb.setImage(fileName);
         //save product
         Product saveProduct = productRepository.save(productFromDb);
+        productSearchIndex.index(saveProduct);
+        productCatalogCache.invalidateAfterCommit();
         //return dto
-        return modelMapper.map(saveProduct,ProductDTO.class);
+        return productMapper.toDto(saveProduct);
     }
 
 
@@ -0,0 +1,23 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.SalesRankDTO;
+import com.ecommerce.project.payload.SalesRebuildStatus;
+import com.ecommerce.project.payload.SalesReportResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesReportService {
+
+    SalesReportResponse getDailySales(LocalDate fromDate, LocalDate toDate);
+
+    List<SalesRankDTO> getTopProducts(LocalDate fromDate, LocalDate toDate, Integer limit);
+
+    List<SalesRankDTO> getTopCategories(LocalDate fromDate, LocalDate toDate, Integer limit);
+
+    List<SalesRankDTO> getTopSellers(LocalDate fromDate, LocalDate toDate, Integer limit);
+
+    SalesRebuildStatus rebuild();
+
+    SalesRebuildStatus getRebuildStatus();
+}
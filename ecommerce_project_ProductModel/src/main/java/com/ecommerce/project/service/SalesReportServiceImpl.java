@@ -0,0 +1,101 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.payload.DailySalesDTO;
+import com.ecommerce.project.payload.SalesRankDTO;
+import com.ecommerce.project.payload.SalesRebuildStatus;
+import com.ecommerce.project.payload.SalesReportResponse;
+import com.ecommerce.project.reporting.SalesAggregates;
+import com.ecommerce.project.repository.DailySalesBreakdownRepository;
+import com.ecommerce.project.repository.DailySalesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Sales reports read from the daily aggregates maintained by {@link SalesAggregates}, so their cost
+ * grows with the number of days in the range, not with the number of orders.
+ */
+@Service
+public class SalesReportServiceImpl implements SalesReportService {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 3660;
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private DailySalesRepository dailySalesRepository;
+
+    @Autowired
+    private DailySalesBreakdownRepository dailySalesBreakdownRepository;
+
+    @Autowired
+    private SalesAggregates salesAggregates;
+
+    @Override
+    public SalesReportResponse getDailySales(LocalDate fromDate, LocalDate toDate) {
+        LocalDate to = toDate == null ? LocalDate.now() : toDate;
+        LocalDate from = fromDate(fromDate, to);
+        List<DailySalesDTO> days = dailySalesRepository.findDailySales(from, to);
+        long orders = 0;
+        long units = 0;
+        double revenue = 0;
+        for (DailySalesDTO day : days) {
+            orders += day.getOrders();
+            units += day.getUnits();
+            revenue += day.getRevenue();
+        }
+        return new SalesReportResponse(from, to, orders, units, revenue, days);
+    }
+
+    @Override
+    public List<SalesRankDTO> getTopProducts(LocalDate fromDate, LocalDate toDate, Integer limit) {
+        LocalDate to = toDate == null ? LocalDate.now() : toDate;
+        return dailySalesBreakdownRepository.findTopProducts(fromDate(fromDate, to), to, limit(limit));
+    }
+
+    @Override
+    public List<SalesRankDTO> getTopCategories(LocalDate fromDate, LocalDate toDate, Integer limit) {
+        LocalDate to = toDate == null ? LocalDate.now() : toDate;
+        return dailySalesBreakdownRepository.findTopCategories(fromDate(fromDate, to), to, limit(limit));
+    }
+
+    @Override
+    public List<SalesRankDTO> getTopSellers(LocalDate fromDate, LocalDate toDate, Integer limit) {
+        LocalDate to = toDate == null ? LocalDate.now() : toDate;
+        return dailySalesBreakdownRepository.findTopSellers(fromDate(fromDate, to), to, limit(limit));
+    }
+
+    @Override
+    public SalesRebuildStatus rebuild() {
+        return salesAggregates.rebuild();
+    }
+
+    @Override
+    public SalesRebuildStatus getRebuildStatus() {
+        return salesAggregates.rebuildStatus();
+    }
+
+    //the last DEFAULT_DAYS days up to toDate when no start is given
+    private static LocalDate fromDate(LocalDate fromDate, LocalDate toDate) {
+        LocalDate from = fromDate == null ? toDate.minusDays(DEFAULT_DAYS - 1) : fromDate;
+        if (from.isAfter(toDate)) {
+            throw new APIException("fromDate must not be after toDate");
+        }
+        if (ChronoUnit.DAYS.between(from, toDate) >= MAX_DAYS) {
+            throw new APIException("A report covers at most " + MAX_DAYS + " days");
+        }
+        return from;
+    }
+
+    private static Limit limit(Integer limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new APIException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return Limit.of(limit);
+    }
+}
@@ -2,42 +2,74 @@ package com.ecommerce.project.util;
 
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.repository.UserRepository;
+import com.ecommerce.project.security.services.Userdetailsimpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.List;
+
+/**
+ * The logged-in user for controllers and services.
+ * <p>
+ * The id, username and email come from the authentication principal, which the request filter
+ * builds from the token's claims, so reading them runs no query. The {@link User} row is loaded on
+ * first use and kept on the request, so one request loads it at most once however many controllers
+ * and services ask for it. Across requests nothing is cached beyond the token itself: a change to
+ * the user reaches the principal when the user signs in again, or at once by revoking their tokens.
+ */
 @Component
 public class AuthUtil {
 
+    private static final String USER_ATTRIBUTE = AuthUtil.class.getName() + ".user";
+
     @Autowired
     UserRepository userRepository;
 
     public String loggedInEmail(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-
-        return user.getEmail();
+        return loggedInPrincipal().getEmail();
     }
 
     public Long loggedInUserId(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-
-        return user.getUserId();
+        return loggedInPrincipal().getId();
     }
 
     public User loggedInUser(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        User user = attributes != null
+                ? (User) attributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        if (user == null) {
+            Long userId = loggedInUserId();
+            user = userRepository.findById(userId)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with id: " + userId));
+            if (attributes != null) {
+                attributes.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
         return user;
+    }
 
+    /**
+     * A reference to the logged-in user for setting an association; the row is not loaded.
+     */
+    public User loggedInUserReference(){
+        return userRepository.getReferenceById(loggedInUserId());
     }
 
+    private Userdetailsimpl loggedInPrincipal(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof Userdetailsimpl principal) {
+            return principal;
+        }
 
-}
\ No newline at end of file
+        //authenticated some other way: only the username is known
+        User user = userRepository.findByUserName(authentication.getName())
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+        return new Userdetailsimpl(user.getUserId(), null, user.getEmail(), user.getUserName(), List.of());
+    }
+}
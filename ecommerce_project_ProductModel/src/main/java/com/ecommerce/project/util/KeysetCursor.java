@@ -0,0 +1,90 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.exception.APIException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes keyset scroll positions as opaque {@code after} tokens for cursor based listings.
+ * <p>
+ * The token is the base64url JSON of the sort key values of the last row returned.
+ * Only properties listed in the supplied type map are accepted back, so clients
+ * cannot inject arbitrary keys into the query. A key whose value was null is written as an
+ * explicit JSON null and decoded back to null; a listing over a nullable key places those rows
+ * last and continues among them by its non-null id tie breaker.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded");
+        }
+        try {
+            byte[] json = mapper.writeValueAsBytes(keyset.getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    /**
+     * Decodes an {@code after} token, or returns the initial position when the token is blank.
+     *
+     * @param token        the opaque token sent by the client.
+     * @param allowedTypes sort properties allowed in the token mapped to their Java type.
+     */
+    public static KeysetScrollPosition decode(String token, Map<String, Class<?>> allowedTypes) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> raw;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            raw = mapper.readValue(new String(json, StandardCharsets.UTF_8), new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (IllegalArgumentException | IOException e) {
+            throw new APIException("Invalid cursor");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+            Class<?> type = allowedTypes.get(entry.getKey());
+            if (type == null) {
+                throw new APIException("Invalid cursor");
+            }
+            keys.put(entry.getKey(), entry.getValue() == null ? null : convert(entry.getValue(), type));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (type == String.class) {
+            return value.toString();
+        }
+        if (!(value instanceof Number number)) {
+            throw new APIException("Invalid cursor");
+        }
+        if (type == Long.class) {
+            return number.longValue();
+        }
+        if (type == Integer.class) {
+            return number.intValue();
+        }
+        if (type == Double.class) {
+            return number.doubleValue();
+        }
+        throw new APIException("Invalid cursor");
+    }
+}
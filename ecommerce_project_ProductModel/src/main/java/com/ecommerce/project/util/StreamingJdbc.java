@@ -0,0 +1,39 @@
+package com.ecommerce.project.util;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Builds {@link JdbcTemplate}s whose queries stream their rows instead of loading the whole result set.
+ * <p>
+ * MySQL Connector/J only streams a forward-only, read-only statement whose fetch size is
+ * {@link Integer#MIN_VALUE}; it then hands rows over one at a time, and only that statement is
+ * affected. Other drivers honour an ordinary fetch size. The streaming setting stays on the
+ * template, so the application's other queries keep the driver defaults.
+ */
+public final class StreamingJdbc {
+
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private StreamingJdbc() {
+    }
+
+    public static JdbcTemplate template(DataSource dataSource, int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(isMySql(dataSource) ? MYSQL_STREAMING_FETCH_SIZE : fetchSize);
+        return template;
+    }
+
+    private static boolean isMySql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "MySQL".equals(JdbcUtils.commonDatabaseName(product));
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not tell which database the streaming queries run on", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.project.util;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time ordered ids generated in memory: 41 bits of milliseconds since 2025-01-01, a 5 bit node
+ * number and a 7 bit sequence within the millisecond.
+ * <p>
+ * Ids need no database round trip, keep growing like the old auto increment keys (so keyset
+ * pagination on ids still works) and start far above every existing key. At 53 bits they stay
+ * exact in JavaScript numbers, so JSON clients can use them as they are, until 2094. Every
+ * application instance writing to the same database needs its own node number (0-31), set with the
+ * {@code project.ids.node} system property or the {@code PROJECT_IDS_NODE} environment variable.
+ * JDBC inserts call {@link #nextId()} directly.
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final long NODE = node();
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last id handed out
+    private static final AtomicLong last = new AtomicLong();
+
+    public static long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        // a full millisecond (128 ids) or a clock moving backwards borrows from the next millisecond,
+        // so ids never repeat and never go down
+        long stamp = last.updateAndGet(previous -> Math.max(previous + 1, now));
+        return ((stamp >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | (NODE << SEQUENCE_BITS) | (stamp & SEQUENCE_MASK);
+    }
+
+    /**
+     * The smallest id any node can hand out at the given instant: ids below it were generated earlier.
+     */
+    public static long firstIdAt(Instant instant) {
+        return Math.max(0, instant.toEpochMilli() - EPOCH) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    private static long node() {
+        String value = System.getProperty("project.ids.node", System.getenv().getOrDefault("PROJECT_IDS_NODE", "0"));
+        long node = Long.parseLong(value.trim());
+        if (node < 0 || node >= (1L << NODE_BITS)) {
+            throw new IllegalStateException("project.ids.node must be between 0 and " + ((1L << NODE_BITS) - 1));
+        }
+        return node;
+    }
+}
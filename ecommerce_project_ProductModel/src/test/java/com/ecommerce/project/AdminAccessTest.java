@@ -0,0 +1,67 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repository.RoleRepository;
+import com.ecommerce.project.repository.UserRepository;
+import com.ecommerce.project.security.jwt.JWTUtils;
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Only admins get past {@code /api/admin/**}; any other signed-in user is refused.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JWTUtils jwtUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void userTokenIsForbidden() throws Exception {
+        mockMvc.perform(get("/api/admin/products/cache/stats").header("Authorization", "Bearer " + tokenFor(AppRole.ROLE_USER)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/products/cache/stats").header("Authorization", "Bearer " + tokenFor(AppRole.ROLE_SELLER)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminTokenIsAllowed() throws Exception {
+        mockMvc.perform(get("/api/admin/products/cache/stats").header("Authorization", "Bearer " + tokenFor(AppRole.ROLE_ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousRequestIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/admin/products/cache/stats"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String tokenFor(AppRole role) {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        user.setRoles(Set.of(roleRepository.findByRoleName(role).orElseThrow()));
+        userRepository.save(user);
+        return jwtUtils.getTokenFromUser(Userdetailsimpl.build(userRepository.findWithRolesByUserName(name).orElseThrow()));
+    }
+}
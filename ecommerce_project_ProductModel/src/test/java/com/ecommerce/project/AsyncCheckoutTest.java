@@ -0,0 +1,231 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.checkout.CheckoutQueue;
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.exception.GlobalExceptionHandler;
+import com.ecommerce.project.exception.TooManyRequestsException;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.APIResponse;
+import com.ecommerce.project.payload.CheckoutStatusDTO;
+import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.repository.*;
+import com.ecommerce.project.service.AsyncCheckoutService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Orders submitted to the checkout queue are placed in the background and can be polled by reference,
+ * and entries whose journal update fails are retried instead of left blocking the user.
+ */
+@SpringBootTest
+class AsyncCheckoutTest {
+
+    @Autowired
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CheckoutRequestRepository checkoutRequestRepository;
+
+    @Autowired
+    private CheckoutQueue checkoutQueue;
+
+    @Test
+    void queuedOrderIsPlacedInTheBackground() {
+        Customer customer = newCustomerWithCart(3);
+
+        CheckoutStatusDTO accepted = asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest);
+        assertEquals(CheckoutStatus.QUEUED, accepted.getStatus());
+
+        CheckoutStatusDTO done = awaitFinished(customer.email, accepted.getReference());
+        assertEquals(CheckoutStatus.COMPLETED, done.getStatus(), done.getMessage());
+        assertNotNull(done.getOrderId());
+        assertEquals(97, productRepository.findById(customer.productId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void onlyOneQueuedOrderPerCartAndEmptyCartsAreRejected() {
+        Customer customer = newCustomerWithCart(1);
+        CheckoutStatusDTO accepted = asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest);
+
+        // the cart is either still queued or already emptied by the first order
+        assertThrows(APIException.class, () -> asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest));
+        assertEquals(CheckoutStatus.COMPLETED, awaitFinished(customer.email, accepted.getReference()).getStatus());
+        assertThrows(APIException.class, () -> asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest));
+    }
+
+    @Test
+    void unfinishedRequestJournaledElsewhereBlocksTheCart() {
+        Customer customer = newCustomerWithCart(1);
+        // journaled, e.g. by another instance, but never on this instance's queue
+        CheckoutRequest elsewhere = new CheckoutRequest();
+        elsewhere.setReference(UUID.randomUUID().toString());
+        elsewhere.setEmail(customer.email);
+        elsewhere.setActiveEmail(customer.email);
+        elsewhere.setStatus(CheckoutStatus.QUEUED);
+        checkoutRequestRepository.save(elsewhere);
+
+        APIException rejected = assertThrows(APIException.class,
+                () -> asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest));
+        assertTrue(rejected.getMessage().endsWith(elsewhere.getReference()), rejected.getMessage());
+
+        elsewhere.setStatus(CheckoutStatus.FAILED);
+        elsewhere.setActiveEmail(null);
+        checkoutRequestRepository.save(elsewhere);
+        CheckoutStatusDTO accepted = asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest);
+        assertEquals(CheckoutStatus.COMPLETED, awaitFinished(customer.email, accepted.getReference()).getStatus());
+    }
+
+    @Test
+    void racingSubmissionsQueueOneOrder() throws Exception {
+        Customer customer = newCustomerWithCart(1);
+        int submissions = 8;
+        CyclicBarrier start = new CyclicBarrier(submissions);
+        ExecutorService executor = Executors.newFixedThreadPool(submissions);
+        try {
+            List<Future<CheckoutStatusDTO>> results = new ArrayList<>();
+            for (int i = 0; i < submissions; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest);
+                }));
+            }
+            List<CheckoutStatusDTO> accepted = new ArrayList<>();
+            for (Future<CheckoutStatusDTO> result : results) {
+                try {
+                    accepted.add(result.get());
+                } catch (ExecutionException e) {
+                    assertInstanceOf(APIException.class, e.getCause());
+                }
+            }
+            assertEquals(1, accepted.size());
+            assertEquals(CheckoutStatus.COMPLETED, awaitFinished(customer.email, accepted.get(0).getReference()).getStatus());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedJournalUpdateIsRetried() {
+        // more than the stock, so the order fails; recording the failure fails once as well
+        Customer customer = newCustomerWithCart(101);
+        AtomicInteger markFailedCalls = new AtomicInteger();
+        CheckoutRequestRepository flaky = (CheckoutRequestRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{CheckoutRequestRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("markFailed") && markFailedCalls.incrementAndGet() == 1) {
+                        throw new IllegalStateException("journal unavailable");
+                    }
+                    try {
+                        return method.invoke(checkoutRequestRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        ReflectionTestUtils.setField(checkoutQueue, "checkoutRequestRepository", flaky);
+        try {
+            CheckoutStatusDTO accepted = asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest);
+
+            assertEquals(CheckoutStatus.FAILED, awaitFinished(customer.email, accepted.getReference()).getStatus());
+            assertEquals(2, markFailedCalls.get());
+            // the failed entry no longer holds the user's one unfinished checkout
+            assertEquals(CheckoutStatus.QUEUED,
+                    asyncCheckoutService.submitOrder(customer.email, "card", customer.orderRequest).getStatus());
+        } finally {
+            ReflectionTestUtils.setField(checkoutQueue, "checkoutRequestRepository", checkoutRequestRepository);
+        }
+    }
+
+    @Test
+    void fullQueueAnswersTooManyRequestsWithRetryAfter() {
+        ResponseEntity<APIResponse> response = new GlobalExceptionHandler()
+                .myTooManyRequestsException(new TooManyRequestsException("busy", 5));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private CheckoutStatusDTO awaitFinished(String email, String reference) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        CheckoutStatusDTO status = asyncCheckoutService.getCheckoutStatus(email, reference);
+        while (status.getStatus() == CheckoutStatus.QUEUED || status.getStatus() == CheckoutStatus.PROCESSING) {
+            assertTrue(System.currentTimeMillis() < deadline, "checkout did not finish");
+            LockSupport.parkNanos(1_000_000);
+            status = asyncCheckoutService.getCheckoutStatus(email, reference);
+        }
+        return status;
+    }
+
+    private record Customer(String email, Long productId, OrderRequestDTO orderRequest) {
+    }
+
+    private Customer newCustomerWithCart(int quantity) {
+        Category category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        product = productRepository.save(product);
+
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        Address address = new Address("Country", "Some street", "Some building", "City", "State", "123456");
+        address.setUser(user);
+        address = addressRepository.save(address);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setTotalPrice(90.0 * quantity);
+        cart = cartRepository.save(cart);
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setProductPrice(90.0);
+        cartItemRepository.save(cartItem);
+
+        OrderRequestDTO orderRequest = new OrderRequestDTO(address.getAddressId(), "card", "gateway", "pg-1", "success", "ok");
+        return new Customer(user.getEmail(), product.getProductId(), orderRequest);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repository.UserRepository;
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import com.ecommerce.project.util.AuthUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The logged-in user's id and email come from the principal, and the user row is loaded at most
+ * once per request.
+ */
+@SpringBootTest
+class AuthUtilTest {
+
+    @Autowired
+    private AuthUtil authUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User(name, name + "@example.com", "password"));
+        Userdetailsimpl principal = new Userdetailsimpl(user.getUserId(), null, user.getEmail(), user.getUserName(), List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void idAndEmailRunNoQueries() {
+        assertEquals(user.getEmail(), authUtil.loggedInEmail());
+        assertEquals(user.getUserId(), authUtil.loggedInUserId());
+        assertEquals(user.getUserId(), authUtil.loggedInUserReference().getUserId());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userIsLoadedOncePerRequest() {
+        User first = authUtil.loggedInUser();
+        User second = authUtil.loggedInUser();
+
+        assertSame(first, second);
+        assertEquals(user.getUserName(), first.getUserName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        authUtil.loggedInUser();
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.cache.ProductCatalogCache;
+import com.ecommerce.project.inventory.FlashSaleInventory;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.InventoryService;
+import com.ecommerce.project.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cached listing pages show the current stock: orders change it without dropping the pages, and a
+ * product on flash sale shows its in-memory count.
+ */
+@SpringBootTest
+class CachedListingStockTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(40);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        product = productRepository.save(product);
+        productCatalogCache.invalidateAll();
+    }
+
+    @Test
+    void orderedStockShowsOnTheCachedPage() {
+        assertEquals(40, listedQuantity());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                inventoryService.reserve(Map.of(product.getProductId(), 4)));
+
+        long hits = productCatalogCache.stats().getHits();
+        assertEquals(36, listedQuantity());
+        assertEquals(hits + 1, productCatalogCache.stats().getHits());
+    }
+
+    @Test
+    void flashSaleStockShowsBeforeItIsWrittenBack() {
+        assertEquals(40, listedQuantity());
+        flashSaleInventory.startSale(product.getProductId());
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    inventoryService.reserve(Map.of(product.getProductId(), 3)));
+
+            assertEquals(37, listedQuantity());
+        } finally {
+            flashSaleInventory.endSale(product.getProductId());
+        }
+        assertEquals(37, listedQuantity());
+    }
+
+    private int listedQuantity() {
+        ProductResponse page = productService.searchByCategory(category.getCategoryId(), 0, 10, "price", "asc");
+        assertEquals(1, page.getContent().size());
+        ProductDTO dto = page.getContent().get(0);
+        assertEquals(product.getProductId(), dto.getProductId());
+        return dto.getQuantity();
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.RepricingStats;
+import com.ecommerce.project.pricing.CartRepricingPipeline;
+import com.ecommerce.project.repository.*;
+import com.ecommerce.project.service.CartService;
+import com.ecommerce.project.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Price changes reach the carts holding the product, either through the background
+ * {@link CartRepricingPipeline} or, if a cart is read first, through {@code getCart}.
+ */
+@SpringBootTest
+class CartRepricingTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepricingPipeline cartRepricingPipeline;
+
+    private Product product;
+    private Product otherProduct;
+
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        product = addProduct(category);
+        otherProduct = addProduct(category);
+    }
+
+    @Test
+    void priceUpdateRepricesEveryCartInTheBackground() {
+        Cart first = newCart();
+        addCartItem(first, product, 2);
+        addCartItem(first, otherProduct, 1);
+        Cart second = newCart();
+        addCartItem(second, product, 3);
+
+        productService.updateProduct(productWithPrice(product, 200.0), product.getProductId());
+        productService.updateProduct(productWithPrice(product, 300.0), product.getProductId());
+        awaitRepricing();
+
+        // latest special price is 300 less the 10% discount; the other line keeps its price
+        assertEquals(270.0, cartItemRepository.findCartItemByProductIdAndCartId(first.getCartId(), product.getProductId()).getProductPrice(), 1e-9);
+        assertEquals(270.0 * 2 + 90.0, cartRepository.findById(first.getCartId()).orElseThrow().getTotalPrice(), 1e-9);
+        assertEquals(270.0 * 3, cartRepository.findById(second.getCartId()).orElseThrow().getTotalPrice(), 1e-9);
+    }
+
+    @Test
+    void getCartRepricesACartTheBackgroundHasNotReached() {
+        Cart cart = newCart();
+        addCartItem(cart, product, 2);
+        addCartItem(cart, otherProduct, 1);
+
+        // change the price behind the pipeline's back, as if its run were still queued
+        product.setSpecialPrice(50.0);
+        productRepository.save(product);
+
+        CartDTO cartDTO = cartService.getCart(cart.getUser().getEmail(), cart.getCartId());
+
+        assertEquals(50.0 * 2 + 90.0, cartDTO.getTotalPrice(), 1e-9);
+        assertEquals(50.0, cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), product.getProductId()).getProductPrice(), 1e-9);
+    }
+
+    private void awaitRepricing() {
+        long deadline = System.currentTimeMillis() + 10_000;
+        RepricingStats stats = cartRepricingPipeline.stats();
+        while (stats.getPendingProducts() + stats.getRunningProducts() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "cart repricing did not finish");
+            LockSupport.parkNanos(1_000_000);
+            stats = cartRepricingPipeline.stats();
+        }
+    }
+
+    private Product addProduct(Category category) {
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    private static Product productWithPrice(Product product, double price) {
+        Product update = new Product();
+        update.setProductName(product.getProductName());
+        update.setDescription(product.getDescription());
+        update.setQuantity(product.getQuantity());
+        update.setPrice(price);
+        update.setDiscount(product.getDiscount());
+        return update;
+    }
+
+    private Cart newCart() {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setTotalPrice(0.0);
+        return cartRepository.save(cart);
+    }
+
+    private void addCartItem(Cart cart, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setProductPrice(product.getSpecialPrice());
+        cartItemRepository.save(cartItem);
+        cart.setTotalPrice(cart.getTotalPrice() + product.getSpecialPrice() * quantity);
+        cartRepository.save(cart);
+    }
+}
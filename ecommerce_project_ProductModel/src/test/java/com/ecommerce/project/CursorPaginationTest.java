@@ -0,0 +1,109 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Following the cursors of a product listing visits every product exactly once, in sort order, even
+ * when many products share the sort value and a page boundary falls among them.
+ */
+@SpringBootTest
+class CursorPaginationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category category;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        products = new ArrayList<>();
+        // three products at 50 and four at 80: pages of two split both runs of ties
+        for (double specialPrice : new double[]{80, 50, 80, 50, 80, 50, 80}) {
+            products.add(newProduct(specialPrice));
+        }
+    }
+
+    @Test
+    void ascendingPagesWalkTiesByProductId() {
+        List<Long> expected = products.stream()
+                .sorted(Comparator.comparingDouble(Product::getSpecialPrice).thenComparing(Product::getProductId))
+                .map(Product::getProductId)
+                .toList();
+
+        assertEquals(expected, walk("asc"));
+    }
+
+    @Test
+    void descendingPagesWalkTiesByProductIdDescending() {
+        List<Long> expected = products.stream()
+                .sorted(Comparator.comparingDouble(Product::getSpecialPrice).thenComparing(Product::getProductId).reversed())
+                .map(Product::getProductId)
+                .toList();
+
+        assertEquals(expected, walk("desc"));
+    }
+
+    @Test
+    void lastPageHasNoCursorAndTotalsAreOptional() {
+        ProductResponse all = productService.searchByCategoryByCursor(category.getCategoryId(), null, 10,
+                "specialPrice", "asc", true);
+        assertTrue(all.isLastPage());
+        assertNull(all.getNextCursor());
+        assertEquals(7, all.getTotalItems());
+        assertEquals(1, all.getTotalPages());
+
+        assertNull(productService.searchByCategoryByCursor(category.getCategoryId(), null, 2,
+                "specialPrice", "asc", false).getTotalItems());
+    }
+
+    private List<Long> walk(String sortOrder) {
+        List<Long> visited = new ArrayList<>();
+        String after = null;
+        do {
+            ProductResponse page = productService.searchByCategoryByCursor(category.getCategoryId(), after, 2,
+                    "specialPrice", sortOrder, false);
+            assertTrue(page.getContent().size() <= 2);
+            page.getContent().stream().map(ProductDTO::getProductId).forEach(visited::add);
+            after = page.isLastPage() ? null : page.getNextCursor();
+        } while (after != null);
+        return visited;
+    }
+
+    private Product newProduct(double specialPrice) {
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(100.0 - specialPrice);
+        product.setSpecialPrice(specialPrice);
+        product.setImage("default.png");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+}
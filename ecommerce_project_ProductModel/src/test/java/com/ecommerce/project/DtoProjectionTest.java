@@ -0,0 +1,139 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.cache.ProductCatalogCache;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CategoryResponse;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repository.*;
+import com.ecommerce.project.service.CartService;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The public listings are read as DTO rows: every field the client sees is filled in, and no
+ * entity is loaded to produce them.
+ */
+@SpringBootTest
+class DtoProjectionTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private Statistics statistics;
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(40);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        product = productRepository.save(product);
+        productCatalogCache.invalidateAll();
+    }
+
+    @Test
+    void productListingsAreFilledWithoutLoadingEntities() {
+        statistics.clear();
+        ProductResponse byCategory = productService.searchByCategory(category.getCategoryId(), 0, 10, "price", "asc");
+        ProductResponse all = productService.getAllProduct(0, 1000, "productId", "desc");
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(List.of(product.getProductId()), byCategory.getContent().stream().map(ProductDTO::getProductId).toList());
+        assertEquals(1, byCategory.getTotalItems());
+        assertMatchesProduct(byCategory.getContent().get(0), 40);
+        assertTrue(all.getContent().stream().anyMatch(dto -> dto.getProductId().equals(product.getProductId())));
+    }
+
+    @Test
+    void categoryListingIsFilledWithoutLoadingEntities() {
+        statistics.clear();
+        CategoryResponse categories = categoryService.getAllcategories(0, 1000, "categoryId", "desc");
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(categories.getContent().stream().anyMatch(dto -> dto.getCategoryId().equals(category.getCategoryId())
+                && dto.getCategoryName().equals(category.getCategoryName())));
+    }
+
+    @Test
+    void cartProductsCarryTheCartQuantity() {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setTotalPrice(270.0);
+        cart = cartRepository.save(cart);
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(3);
+        cartItem.setProductPrice(90.0);
+        cartItemRepository.save(cartItem);
+
+        CartDTO cartDTO = cartService.getCart(user.getEmail(), cart.getCartId());
+
+        assertEquals(1, cartDTO.getProducts().size());
+        assertMatchesProduct(cartDTO.getProducts().get(0), 3);
+    }
+
+    private void assertMatchesProduct(ProductDTO dto, int quantity) {
+        assertEquals(product.getProductId(), dto.getProductId());
+        assertEquals(product.getProductName(), dto.getProductName());
+        assertEquals(product.getDescription(), dto.getDescription());
+        assertEquals("default.png", dto.getImage());
+        assertEquals(quantity, dto.getQuantity());
+        assertEquals(100.0, dto.getPrice());
+        assertEquals(10.0, dto.getDiscount());
+        assertEquals(90.0, dto.getSpecialPrice());
+    }
+}
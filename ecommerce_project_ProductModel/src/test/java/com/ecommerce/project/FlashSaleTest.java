@@ -0,0 +1,228 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.inventory.FlashSaleInventory;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.InventoryService;
+import com.ecommerce.project.service.InventoryServiceImpl;
+import com.ecommerce.project.util.TimeOrderedIdGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Flash-sale stock is granted from memory without overselling, written back to the product row,
+ * and recovered from the order lines after a restart; lines numbered before the sale are refused.
+ */
+@SpringBootTest
+class FlashSaleTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+
+    @Autowired
+    private FlashSaleInventory flashSaleInventory;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+    }
+
+    @Test
+    void flashSaleNeverOversellsAndIsWrittenBack() throws Exception {
+        Product hot = addProduct(500);
+        Product plenty = addProduct(1_000_000);
+        flashSaleInventory.startSale(hot.getProductId());
+        AtomicInteger hotReserved = new AtomicInteger();
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int quantity = random.nextInt(1, 4);
+                    try {
+                        inventoryService.reserve(Map.of(hot.getProductId(), quantity, plenty.getProductId(), 1));
+                        hotReserved.addAndGet(quantity);
+                        successes.incrementAndGet();
+                    } catch (APIException e) {
+                        rejections.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long hotLeft = flashSaleInventory.available(hot.getProductId()).orElseThrow();
+        assertTrue(rejections.get() > 0, "the hot product should have sold out");
+        assertTrue(hotLeft >= 0 && hotLeft < 3, "stock left: " + hotLeft);
+        assertEquals(500 - hotReserved.get(), hotLeft);
+        // the product on sale was reserved in memory, the other one in the database as usual
+        assertEquals(1_000_000 - successes.get(), productRepository.findById(plenty.getProductId()).orElseThrow().getQuantity());
+
+        // ending the sale writes the sold units back and hands the row its stock again
+        flashSaleInventory.endSale(hot.getProductId());
+        assertTrue(flashSaleInventory.available(hot.getProductId()).isEmpty());
+        assertEquals(hotLeft, (long) productRepository.findById(hot.getProductId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void flashSaleUnitsAreGivenBackWhenTheOrderRollsBack() {
+        Product product = addProduct(10);
+        flashSaleInventory.startSale(product.getProductId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            inventoryService.reserve(Map.of(product.getProductId(), 4));
+            assertEquals(6, flashSaleInventory.available(product.getProductId()).orElseThrow());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(10, flashSaleInventory.available(product.getProductId()).orElseThrow());
+        flashSaleInventory.endSale(product.getProductId());
+        assertEquals(10, productRepository.findById(product.getProductId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void soldOutReplyNamesTheProductWithoutAQuery() {
+        Product product = addProduct(2);
+        flashSaleInventory.startSale(product.getProductId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        APIException e = assertThrows(APIException.class, () -> inventoryService.reserve(Map.of(product.getProductId(), 3)));
+
+        assertTrue(e.getMessage().contains(product.getProductName()), e.getMessage());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        flashSaleInventory.endSale(product.getProductId());
+    }
+
+    @Test
+    void rowRefusesDatabaseReservationsOnceTheSaleStarted() {
+        Product product = addProduct(10);
+        // a checkout that looked for flash sales just before this one started
+        FlashSaleInventory before = beanFactory.createBean(FlashSaleInventory.class);
+        InventoryServiceImpl lateCheckout = beanFactory.createBean(InventoryServiceImpl.class);
+        ReflectionTestUtils.setField(lateCheckout, "flashSaleInventory", before);
+        try {
+            flashSaleInventory.startSale(product.getProductId());
+
+            assertThrows(APIException.class, () -> lateCheckout.reserve(Map.of(product.getProductId(), 4)));
+            assertEquals(10, productRepository.findById(product.getProductId()).orElseThrow().getQuantity());
+            assertEquals(10, flashSaleInventory.available(product.getProductId()).orElseThrow());
+        } finally {
+            beanFactory.destroyBean(before);
+            flashSaleInventory.endSale(product.getProductId());
+        }
+    }
+
+    @Test
+    void orderLinesNumberedBeforeTheSaleAreRefused() {
+        Product product = addProduct(10);
+        // the order's lines got their ids, then the sale started before it reserved
+        long firstOrderItemId = TimeOrderedIdGenerator.nextId();
+        flashSaleInventory.startSale(product.getProductId());
+        try {
+            APIException e = assertThrows(APIException.class,
+                    () -> inventoryService.reserve(Map.of(product.getProductId(), 4), firstOrderItemId));
+            assertTrue(e.getMessage().contains("has just started"), e.getMessage());
+            assertEquals(10, flashSaleInventory.available(product.getProductId()).orElseThrow());
+
+            // placed again, its lines are numbered after the marker
+            inventoryService.reserve(Map.of(product.getProductId(), 4), TimeOrderedIdGenerator.nextId());
+            assertEquals(6, flashSaleInventory.available(product.getProductId()).orElseThrow());
+        } finally {
+            flashSaleInventory.endSale(product.getProductId());
+        }
+    }
+
+    @Test
+    void restartAppliesUnwrittenOrderLines() {
+        Product product = addProduct(10);
+        flashSaleInventory.startSale(product.getProductId());
+        // an order committed for 3 units, then the application stopped before writing them
+        long orderId = TimeOrderedIdGenerator.nextId();
+        jdbcTemplate.update("INSERT INTO orders (order_id, email, order_date, total_amount, order_status) VALUES (?, ?, ?, ?, ?)",
+                orderId, "buyer@example.com", LocalDate.now(), 270.0, "Order accepted");
+        jdbcTemplate.update("INSERT INTO order_items (order_item_id, order_id, product_id, quantity, discount, order_product_price) VALUES (?, ?, ?, ?, ?, ?)",
+                TimeOrderedIdGenerator.nextId(), orderId, product.getProductId(), 3, 10.0, 90.0);
+
+        FlashSaleInventory restarted = beanFactory.createBean(FlashSaleInventory.class);
+        try {
+            assertEquals(7, productRepository.findById(product.getProductId()).orElseThrow().getQuantity());
+            assertEquals(7, restarted.available(product.getProductId()).orElseThrow());
+            restarted.endSale(product.getProductId());
+        } finally {
+            beanFactory.destroyBean(restarted);
+            flashSaleInventory.endSale(product.getProductId());
+        }
+        assertEquals(7, productRepository.findById(product.getProductId()).orElseThrow().getQuantity());
+    }
+
+    private Product addProduct(int quantity) {
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(quantity);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+}
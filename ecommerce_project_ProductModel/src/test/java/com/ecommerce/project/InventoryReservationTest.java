@@ -0,0 +1,156 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stock reservations never oversell, are all or nothing, and are handed back when the order
+ * they were taken for does not commit.
+ */
+@SpringBootTest
+class InventoryReservationTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product hot = addProduct(500);
+        Product plenty = addProduct(1_000_000);
+        AtomicInteger hotReserved = new AtomicInteger();
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejections = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int quantity = random.nextInt(1, 4);
+                    try {
+                        inventoryService.reserve(Map.of(hot.getProductId(), quantity, plenty.getProductId(), 1));
+                        hotReserved.addAndGet(quantity);
+                        successes.incrementAndGet();
+                    } catch (APIException e) {
+                        rejections.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int hotLeft = productRepository.findById(hot.getProductId()).orElseThrow().getQuantity();
+        int plentyLeft = productRepository.findById(plenty.getProductId()).orElseThrow().getQuantity();
+
+        // demand (16 x 200 x ~2) far exceeds the 500 in stock: it sells out, never below zero
+        assertTrue(rejections.get() > 0, "the hot product should have sold out");
+        assertTrue(hotLeft >= 0 && hotLeft < 3, "stock left: " + hotLeft);
+        assertEquals(500 - hotReserved.get(), hotLeft);
+        // every rejected reservation left the other product untouched
+        assertEquals(1_000_000 - successes.get(), plentyLeft);
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        Product available = addProduct(5);
+        Product scarce = addProduct(1);
+
+        APIException e = assertThrows(APIException.class, () ->
+                inventoryService.reserve(Map.of(available.getProductId(), 2, scarce.getProductId(), 2)));
+
+        assertTrue(e.getMessage().contains(scarce.getProductName()));
+        assertEquals(5, productRepository.findById(available.getProductId()).orElseThrow().getQuantity());
+        assertEquals(1, productRepository.findById(scarce.getProductId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void failedReservationInsideAnOrderLeavesNothingTaken() {
+        Product available = addProduct(5);
+        Product scarce = addProduct(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            APIException e = assertThrows(APIException.class, () ->
+                    inventoryService.reserve(Map.of(available.getProductId(), 4, scarce.getProductId(), 2)));
+            assertTrue(e.getMessage().contains(scarce.getProductName()));
+            assertFalse(e.getMessage().contains(available.getProductName()));
+            assertEquals(5, productRepository.findById(available.getProductId()).orElseThrow().getQuantity());
+            // only the failed statement was undone: the order's transaction can still commit
+            assertFalse(status.isRollbackOnly());
+        });
+
+        assertEquals(5, productRepository.findById(available.getProductId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void reservationIsReleasedWhenTheOrderRollsBack() {
+        Product product = addProduct(10);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            inventoryService.reserve(Map.of(product.getProductId(), 4));
+            // taken in the order's transaction, and undone with it
+            assertEquals(6, productRepository.findById(product.getProductId()).orElseThrow().getQuantity());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(10, productRepository.findById(product.getProductId()).orElseThrow().getQuantity());
+    }
+
+    private Product addProduct(int quantity) {
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(quantity);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.security.jwt.JWTUtils;
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tokens are verified once with the precomputed key; anything that fails verification yields no claims.
+ */
+class JWTUtilsTest {
+
+    private static final Userdetailsimpl USER = user();
+
+    private JWTUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = jwtUtils("mySecretKey123912738abcdefghijklmnop123456789", 3000000);
+    }
+
+    @Test
+    void validTokenYieldsItsClaims() {
+        Claims claims = jwtUtils.parseClaims(jwtUtils.getTokenFromUser(USER));
+
+        assertNotNull(claims);
+        assertEquals("user1", claims.getSubject());
+    }
+
+    @Test
+    void userIsRebuiltFromClaims() {
+        Userdetailsimpl user = jwtUtils.getUserFromClaims(jwtUtils.parseClaims(jwtUtils.getTokenFromUser(USER)));
+
+        assertEquals(1L, user.getId());
+        assertEquals("user1", user.getUsername());
+        assertEquals("user1@example.com", user.getEmail());
+        assertEquals(3, user.getTokenVersion());
+        assertEquals(List.of("ROLE_USER", "ROLE_SELLER"),
+                user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtUtils.getTokenFromUser(USER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseClaims(tampered));
+        assertNull(jwtUtils.parseClaims("not a token"));
+        assertNull(jwtUtils.parseClaims(""));
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        JWTUtils other = jwtUtils("anotherSecretKey98765432109876543210zyxwvutsrq", 3000000);
+
+        assertNull(jwtUtils.parseClaims(other.getTokenFromUser(USER)));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JWTUtils shortLived = jwtUtils("mySecretKey123912738abcdefghijklmnop123456789", -1000);
+
+        assertNull(jwtUtils.parseClaims(shortLived.getTokenFromUser(USER)));
+    }
+
+    private static Userdetailsimpl user() {
+        Userdetailsimpl user = new Userdetailsimpl(1L, "password", "user1@example.com", "user1",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_SELLER")));
+        user.setTokenVersion(3);
+        return user;
+    }
+
+    private static JWTUtils jwtUtils(String secret, int expirationMs) {
+        JWTUtils jwtUtils = new JWTUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCookie", "springBootEcom");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+}
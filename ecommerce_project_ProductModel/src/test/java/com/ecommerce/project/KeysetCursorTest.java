@@ -0,0 +1,77 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.util.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cursor tokens carry the sort keys of the last row back unchanged, typed as the listing expects,
+ * and refuse keys the listing does not sort by.
+ */
+class KeysetCursorTest {
+
+    private static final Map<String, Class<?>> KEYS = Map.of(
+            "price", Double.class,
+            "productName", String.class,
+            "productId", Long.class);
+
+    @Test
+    void tokenRoundTripsWithItsTypesAndOrder() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", 90.0);
+        keys.put("productName", "Phone, \"black\"");
+        keys.put("productId", 12L);
+
+        KeysetScrollPosition decoded = KeysetCursor.decode(KeysetCursor.encode(ScrollPosition.forward(keys)), KEYS);
+
+        assertEquals(keys, decoded.getKeys());
+        assertEquals(ScrollPosition.Direction.FORWARD, decoded.getDirection());
+    }
+
+    @Test
+    void numbersAreReadAsTheListingsTypes() {
+        KeysetScrollPosition decoded = KeysetCursor.decode(token("{\"price\":90,\"productId\":12}"), KEYS);
+
+        assertEquals(90.0, decoded.getKeys().get("price"));
+        assertEquals(12L, decoded.getKeys().get("productId"));
+    }
+
+    @Test
+    void nullKeyRoundTrips() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("productName", null);
+        keys.put("productId", 12L);
+
+        KeysetScrollPosition decoded = KeysetCursor.decode(KeysetCursor.encode(ScrollPosition.forward(keys)), KEYS);
+
+        assertTrue(decoded.getKeys().containsKey("productName"));
+        assertNull(decoded.getKeys().get("productName"));
+        assertEquals(12L, decoded.getKeys().get("productId"));
+    }
+
+    @Test
+    void blankTokenStartsAtTheBeginning() {
+        assertTrue(KeysetCursor.decode(null, KEYS).isInitial());
+        assertTrue(KeysetCursor.decode(" ", KEYS).isInitial());
+    }
+
+    @Test
+    void foreignOrMalformedTokensAreRejected() {
+        assertThrows(APIException.class, () -> KeysetCursor.decode(token("{\"password\":\"x\"}"), KEYS));
+        assertThrows(APIException.class, () -> KeysetCursor.decode(token("{\"productId\":\"12\"}"), KEYS));
+        assertThrows(APIException.class, () -> KeysetCursor.decode(token("not json"), KEYS));
+        assertThrows(APIException.class, () -> KeysetCursor.decode("%%%", KEYS));
+    }
+
+    private static String token(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes());
+    }
+}
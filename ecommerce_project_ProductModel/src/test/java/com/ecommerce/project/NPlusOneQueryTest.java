@@ -0,0 +1,306 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.cache.ProductCatalogCache;
+import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.outbox.OutboxRelay;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderHistoryResponse;
+import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.RepricingStats;
+import com.ecommerce.project.pricing.CartRepricingPipeline;
+import com.ecommerce.project.repository.*;
+import com.ecommerce.project.service.CartService;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.OrderService;
+import com.ecommerce.project.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails when a read path, or the cart repricing done on a product update, issues more statements
+ * as the data behind it grows (N+1 selects / per-row updates).
+ * <p>
+ * Each check runs the action, adds more rows of the kind it reads, runs it again
+ * and expects the same number of prepared statements both times.
+ */
+@SpringBootTest
+class NPlusOneQueryTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private CartRepricingPipeline cartRepricingPipeline;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    private Statistics statistics;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        addProducts(2);
+    }
+
+    @Test
+    void productListingsDoNotGrowWithCatalog() {
+        assertConstantStatements(() -> addProducts(5), () -> {
+            productCatalogCache.invalidateAll();
+            productService.getAllProduct(0, 50, "productId", "asc");
+        });
+        assertConstantStatements(() -> addProducts(5), () -> {
+            productCatalogCache.invalidateAll();
+            productService.searchByCategory(category.getCategoryId(), 0, 50, "productId", "asc");
+        });
+        assertConstantStatements(() -> addProducts(5), () -> {
+            productCatalogCache.invalidateAll();
+            productService.getAllProductByCursor(null, 50, "productId", "asc", true);
+        });
+    }
+
+    @Test
+    void categoryListingsDoNotGrowWithCategories() {
+        Runnable addCategories = () -> {
+            for (int i = 0; i < 5; i++) {
+                categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+            }
+        };
+        assertConstantStatements(addCategories, () -> categoryService.getAllcategories(0, 50, "categoryId", "asc"));
+        assertConstantStatements(addCategories, () -> categoryService.getAllCategoriesByCursor(null, 50, "categoryId", "asc", true));
+    }
+
+    @Test
+    void cartReadsDoNotGrowWithCartLines() {
+        Cart cart = newCart();
+        addCartItems(cart, 2);
+        String email = cart.getUser().getEmail();
+
+        assertConstantStatements(() -> addCartItems(cart, 5), () -> cartService.getCart(email, cart.getCartId()));
+        assertConstantStatements(() -> addCartItems(newCart(), 3), cartService::getAllCarts);
+    }
+
+    @Test
+    void productUpdateRepricesCartsInConstantStatements() {
+        Product product = productRepository.findAll().get(0);
+        addCartItem(newCart(), product, 2);
+
+        double[] price = {100.0};
+        assertConstantStatements(() -> addCartItem(newCart(), product, 1), () -> {
+            price[0] += 10.0;
+            productService.updateProduct(productWithPrice(product, price[0]), product.getProductId());
+            // the carts are repriced in the background; count its statements too
+            awaitRepricing();
+        });
+    }
+
+    private void assertConstantStatements(Runnable growData, Runnable action) {
+        long before = countStatements(action);
+        growData.run();
+        long after = countStatements(action);
+        assertEquals(before, after, "statement count grew with the data: N+1 selects");
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addProducts(int count) {
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + UUID.randomUUID());
+            product.setDescription("Description of the product");
+            product.setQuantity(100);
+            product.setPrice(100.0);
+            product.setDiscount(10.0);
+            product.setSpecialPrice(90.0);
+            product.setImage("default.png");
+            product.setCategory(category);
+            productRepository.save(product);
+        }
+    }
+
+    private Cart newCart() {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setTotalPrice(0.0);
+        return cartRepository.save(cart);
+    }
+
+    @Test
+    void checkoutDoesNotGrowWithCartLines() {
+        Cart small = newCart();
+        addCartItems(small, 2);
+        Cart large = newCart();
+        addCartItems(large, 7);
+
+        long smallCheckout = countStatements(() -> checkout(small, 2));
+        long largeCheckout = countStatements(() -> checkout(large, 7));
+        assertEquals(smallCheckout, largeCheckout, "statement count grew with the cart lines");
+        assertTrue(cartRepository.findCartWithItemsByCartId(large.getCartId()).getCartItems().isEmpty());
+    }
+
+    @Test
+    void orderHistoryReadsDoNotGrowWithOrderLines() {
+        Cart small = newCart();
+        addCartItems(small, 2);
+        Cart large = newCart();
+        addCartItems(large, 7);
+        Long smallOrder = checkout(small, 2);
+        Long largeOrder = checkout(large, 7);
+        String email = large.getUser().getEmail();
+
+        // the detail view is one select with its items, products, payment and address
+        assertEquals(1, countStatements(() -> orderService.getOrder(null, smallOrder)));
+        assertEquals(1, countStatements(() -> orderService.getOrder(email, largeOrder)));
+        assertEquals(7, orderService.getOrder(email, largeOrder).getOrderItems().size());
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrder(email, smallOrder));
+
+        // listings are one select per page, whatever the orders hold
+        assertConstantStatements(() -> checkout(reorder(large, largeOrder), 7),
+                () -> orderService.getOrders(email, null, null, null, null, 10));
+
+        // keyset pages walk every order once, newest first
+        OrderHistoryResponse first = orderService.getOrders(email, null, null, null, null, 1);
+        assertFalse(first.isLastPage());
+        OrderHistoryResponse second = orderService.getOrders(email, null, null, null, first.getNextCursor(), 1);
+        assertTrue(second.isLastPage());
+        assertEquals(largeOrder, second.getContent().get(0).getOrderId());
+        assertTrue(first.getContent().get(0).getOrderId() > largeOrder);
+
+        // filters apply only when given; an oversized page is cut down to the maximum
+        OrderHistoryResponse filtered = orderService.getOrders(email, "Order accepted", LocalDate.now(), LocalDate.now(),
+                null, Integer.MAX_VALUE);
+        assertEquals(AppConstants.MAX_PAGE_SIZE, filtered.getPageSize());
+        assertTrue(filtered.isLastPage());
+        assertEquals(2, filtered.getContent().size());
+        assertTrue(orderService.getOrders(email, "Delivered", null, null, null, 10).getContent().isEmpty());
+    }
+
+    private Cart reorder(Cart cart, Long orderId) {
+        orderService.getOrder(null, orderId).getOrderItems().forEach(item ->
+                addCartItem(cart, productRepository.findById(item.getProduct().getProductId()).orElseThrow(), 1));
+        return cart;
+    }
+
+    private Long checkout(Cart cart, int lines) {
+        Address address = new Address("Country", "Some street", "Some building", "City", "State", "123456");
+        address.setUser(cart.getUser());
+        addressRepository.save(address);
+        OrderDTO order = orderService.placeOrder(cart.getUser().getEmail(), address.getAddressId(), "card", "gateway", "pg-1", "success", "ok");
+        // the outbox handlers (sales aggregates) run inside the measured window
+        awaitOutbox();
+        // every line was written with the id assigned before its batched insert
+        assertEquals(lines, order.getOrderItems().stream().map(OrderItemDTO::getOrderItemId).filter(Objects::nonNull).distinct().count());
+        return order.getOrderId();
+    }
+
+    private void awaitOutbox() {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (outboxRelay.stats().getPendingEvents() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "outbox events were not delivered");
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    private void awaitRepricing() {
+        long deadline = System.currentTimeMillis() + 10_000;
+        RepricingStats stats = cartRepricingPipeline.stats();
+        while (stats.getPendingProducts() + stats.getRunningProducts() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "cart repricing did not finish");
+            LockSupport.parkNanos(1_000_000);
+            stats = cartRepricingPipeline.stats();
+        }
+    }
+
+    private void addCartItem(Cart cart, Product product, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        cartItem.setProductPrice(product.getSpecialPrice());
+        cartItemRepository.save(cartItem);
+        cart.setTotalPrice(cart.getTotalPrice() + product.getSpecialPrice() * quantity);
+        cartRepository.save(cart);
+    }
+
+    private static Product productWithPrice(Product product, double price) {
+        Product update = new Product();
+        update.setProductName(product.getProductName());
+        update.setDescription(product.getDescription());
+        update.setQuantity(product.getQuantity());
+        update.setPrice(price);
+        update.setDiscount(product.getDiscount());
+        return update;
+    }
+
+    private void addCartItems(Cart cart, int count) {
+        int before = (int) productRepository.count();
+        addProducts(count);
+        productRepository.findAll().stream().skip(before).forEach(product -> {
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(1);
+            cartItem.setProductPrice(product.getSpecialPrice());
+            cartItemRepository.save(cartItem);
+        });
+    }
+}
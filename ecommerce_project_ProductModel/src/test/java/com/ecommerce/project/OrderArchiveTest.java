@@ -0,0 +1,170 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.archive.OrderArchiver;
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderHistoryResponse;
+import com.ecommerce.project.repository.*;
+import com.ecommerce.project.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Old orders leave the live tables and are still found by the order history.
+ */
+@SpringBootTest
+class OrderArchiveTest {
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String email;
+    private Long addressId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        productId = productRepository.save(product).getProductId();
+
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        email = user.getEmail();
+        Address address = new Address("Country", "Some street", "Some building", "City", "State", "123456");
+        address.setUser(user);
+        addressId = addressRepository.save(address).getAddressId();
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartRepository.save(cart);
+    }
+
+    @Test
+    void archivedOrderKeepsItsDetails() {
+        Long orderId = placeOrder(3).getOrderId();
+        backdate(orderId, LocalDate.now().minusYears(2));
+
+        assertTrue(orderArchiver.archive() >= 1);
+
+        assertFalse(orderRepository.existsById(orderId));
+        assertTrue(archivedOrderRepository.existsById(orderId));
+        OrderDTO order = orderService.getOrder(email, orderId);
+        assertEquals(1, order.getOrderItems().size());
+        assertEquals(3, order.getOrderItems().get(0).getQuantity());
+        assertEquals(productId, order.getOrderItems().get(0).getProduct().getProductId());
+        assertEquals("card", order.getPayment().getPaymentMethod());
+        assertEquals(addressId, order.getAddressId());
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrder("someone@example.com", orderId));
+    }
+
+    @Test
+    void historyPagesThroughLiveAndArchivedOrders() {
+        Long oldOrder = placeOrder(1).getOrderId();
+        backdate(oldOrder, LocalDate.now().minusYears(2));
+        orderArchiver.archive();
+        Long newOrder = placeOrder(2).getOrderId();
+
+        OrderHistoryResponse first = orderService.getOrders(email, null, null, null, null, 1);
+        assertFalse(first.isLastPage());
+        assertEquals(newOrder, first.getContent().get(0).getOrderId());
+
+        OrderHistoryResponse second = orderService.getOrders(email, null, null, null, first.getNextCursor(), 1);
+        assertTrue(second.isLastPage());
+        assertEquals(oldOrder, second.getContent().get(0).getOrderId());
+    }
+
+    @Test
+    void undatedOrdersAreListedLastAndPagedThrough() {
+        Long oldOrder = placeOrder(1).getOrderId();
+        backdate(oldOrder, LocalDate.now().minusYears(2));
+        orderArchiver.archive();
+        Long undatedOrder = placeOrder(1).getOrderId();
+        backdate(undatedOrder, null);
+        Long newOrder = placeOrder(1).getOrderId();
+
+        List<Long> listed = new ArrayList<>();
+        OrderHistoryResponse page = orderService.getOrders(email, null, null, null, null, 1);
+        listed.add(page.getContent().get(0).getOrderId());
+        while (!page.isLastPage()) {
+            page = orderService.getOrders(email, null, null, null, page.getNextCursor(), 1);
+            listed.add(page.getContent().get(0).getOrderId());
+        }
+        assertEquals(List.of(newOrder, oldOrder, undatedOrder), listed);
+    }
+
+    @Test
+    void recentOrdersStayLive() {
+        Long orderId = placeOrder(1).getOrderId();
+
+        orderArchiver.archive();
+
+        assertTrue(orderRepository.existsById(orderId));
+        assertFalse(archivedOrderRepository.existsById(orderId));
+    }
+
+    private OrderDTO placeOrder(int quantity) {
+        Cart cart = cartRepository.findCartByEmail(email);
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(productRepository.findById(productId).orElseThrow());
+        cartItem.setQuantity(quantity);
+        cartItem.setProductPrice(90.0);
+        cartItemRepository.save(cartItem);
+        cart.setTotalPrice(90.0 * quantity);
+        cartRepository.save(cart);
+        return orderService.placeOrder(email, addressId, "card", "gateway", "pg-1", "success", "ok");
+    }
+
+    private void backdate(Long orderId, LocalDate orderDate) {
+        jdbcTemplate.update("UPDATE orders SET order_date = ? WHERE order_id = ?", orderDate, orderId);
+    }
+}
@@ -0,0 +1,223 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.checkout.OrderIdempotencyStore;
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.exception.ResourceNotFoundException;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.repository.*;
+import com.ecommerce.project.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retries carrying the same idempotency key get the original order back and place nothing new.
+ */
+@SpringBootTest
+class OrderIdempotencyTest {
+
+    @Autowired
+    private OrderIdempotencyStore orderIdempotencyStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private String email;
+    private Long addressId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        productId = productRepository.save(product).getProductId();
+
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        email = user.getEmail();
+        Address address = new Address("Country", "Some street", "Some building", "City", "State", "123456");
+        address.setUser(user);
+        addressId = addressRepository.save(address).getAddressId();
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setTotalPrice(180.0);
+        cart = cartRepository.save(cart);
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(productRepository.findById(productId).orElseThrow());
+        cartItem.setQuantity(2);
+        cartItem.setProductPrice(90.0);
+        cartItemRepository.save(cartItem);
+    }
+
+    @Test
+    void retryReturnsTheOriginalOrder() {
+        String key = UUID.randomUUID().toString();
+        OrderDTO first = placeOnce(key, addressId);
+        long orders = orderRepository.count();
+        long payments = paymentRepository.count();
+
+        OrderDTO retry = placeOnce(key, addressId);
+
+        assertEquals(first, retry);
+        assertEquals(orders, orderRepository.count());
+        assertEquals(payments, paymentRepository.count());
+        assertEquals(98, productRepository.findById(productId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void concurrentDuplicatesPlaceOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderDTO>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return placeOnce(key, addressId);
+            }));
+        }
+        start.countDown();
+        Set<Long> orderIds = new HashSet<>();
+        for (Future<OrderDTO> result : results) {
+            orderIds.add(result.get(30, TimeUnit.SECONDS).getOrderId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, orderIds.size());
+        assertEquals(98, productRepository.findById(productId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void keyCannotBeReusedForADifferentRequest() {
+        String key = UUID.randomUUID().toString();
+        placeOnce(key, addressId);
+
+        assertThrows(APIException.class, () -> placeOnce(key, addressId + 1000));
+    }
+
+    @Test
+    void failedAttemptCanBeRetriedWithTheSameKey() {
+        String key = UUID.randomUUID().toString();
+        Long missingAddress = addressId + 1000;
+        // same request parameters both times; the address only exists the second time around
+        assertThrows(ResourceNotFoundException.class, () -> orderIdempotencyStore.placeOnce(email, key, List.of("card"),
+                () -> orderService.placeOrder(email, missingAddress, "card", "gateway", "pg-1", "success", "ok")));
+
+        OrderDTO order = orderIdempotencyStore.placeOnce(email, key, List.of("card"),
+                () -> orderService.placeOrder(email, addressId, "card", "gateway", "pg-1", "success", "ok"));
+        assertNotNull(order.getOrderId());
+    }
+
+    @Test
+    void failedAttemptLeavesNothingBehind() {
+        Set<Object> before = storedKeys();
+
+        for (int i = 0; i < 100; i++) {
+            assertThrows(APIException.class, () -> orderIdempotencyStore.placeOnce(email, UUID.randomUUID().toString(),
+                    List.of("card"), () -> {
+                        throw new APIException("cart is empty");
+                    }));
+        }
+
+        assertEquals(before, storedKeys());
+    }
+
+    @Test
+    void orderBeingPlacedIsNeverEvicted() throws Exception {
+        int maxEntries = (int) ReflectionTestUtils.getField(orderIdempotencyStore, "maxEntries");
+        ReflectionTestUtils.setField(orderIdempotencyStore, "maxEntries", 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            String key = UUID.randomUUID().toString();
+            OrderDTO placed = new OrderDTO();
+            CountDownLatch placing = new CountDownLatch(1);
+            CountDownLatch finish = new CountDownLatch(1);
+            Future<OrderDTO> first = executor.submit(() -> orderIdempotencyStore.placeOnce(email, key, List.of("card"), () -> {
+                placing.countDown();
+                awaitUninterruptibly(finish);
+                return placed;
+            }));
+            assertTrue(placing.await(5, TimeUnit.SECONDS));
+
+            // more keys than maxEntries while the first order is still being placed
+            for (int i = 0; i < 3; i++) {
+                orderIdempotencyStore.placeOnce(email, UUID.randomUUID().toString(), List.of("card"), OrderDTO::new);
+            }
+            // so a duplicate arriving now still finds it and waits for its result
+            assertTrue(storedKeys().contains(email + ':' + key));
+            finish.countDown();
+
+            assertSame(placed, first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            ReflectionTestUtils.setField(orderIdempotencyStore, "maxEntries", maxEntries);
+        }
+    }
+
+    private Set<Object> storedKeys() {
+        Map<?, ?> entries = (Map<?, ?>) ReflectionTestUtils.getField(orderIdempotencyStore, "entries");
+        synchronized (entries) {
+            return new HashSet<>(entries.keySet());
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OrderDTO placeOnce(String key, Long addressId) {
+        return orderIdempotencyStore.placeOnce(email, key, List.of("card", addressId),
+                () -> orderService.placeOrder(email, addressId, "card", "gateway", "pg-1", "success", "ok"));
+    }
+}
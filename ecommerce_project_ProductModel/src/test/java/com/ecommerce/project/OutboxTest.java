@@ -0,0 +1,172 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.OutboxEvent;
+import com.ecommerce.project.outbox.OutboxEventHandler;
+import com.ecommerce.project.outbox.OutboxPublisher;
+import com.ecommerce.project.outbox.OutboxRelay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox events are delivered after their transaction commits, retried until they succeed,
+ * kept in order per aggregate, and set aside once they keep failing.
+ */
+@SpringBootTest(properties = {
+        // a database of its own: the relays of other cached test contexts would take these events
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "project.outbox.pollIntervalMs=20",
+        "project.outbox.batchSize=2",
+        "project.outbox.retryDelayMs=20",
+        "project.outbox.maxAttempts=3"
+})
+class OutboxTest {
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private RecordingHandler recordingHandler;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        recordingHandler.delivered.clear();
+        recordingHandler.failuresLeft.clear();
+    }
+
+    @Test
+    void eventsOfAnAggregateWaitForAFailedEarlierOne() {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        recordingHandler.failuresLeft.put(a + ":1", new AtomicInteger(2));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxPublisher.publish("Test", a, "TestEvent", 1);
+            outboxPublisher.publish("Test", b, "OtherEvent", 1);
+            outboxPublisher.publish("Test", a, "OtherEvent", 2);
+            outboxPublisher.publish("Test", b, "OtherEvent", 2);
+            outboxPublisher.publish("Test", a, "TestEvent", 3);
+        });
+
+        await(() -> recordingHandler.delivered.contains(a + ":3") && recordingHandler.delivered.contains(b + ":2"));
+        List<String> delivered = new ArrayList<>(recordingHandler.delivered);
+        assertTrue(delivered.indexOf(a + ":1") < delivered.indexOf(a + ":2"), delivered.toString());
+        assertTrue(delivered.indexOf(a + ":2") < delivered.indexOf(a + ":3"), delivered.toString());
+        // the other aggregate (in a different run) did not wait for the failing one
+        assertTrue(delivered.indexOf(b + ":2") < delivered.indexOf(a + ":1"), delivered.toString());
+    }
+
+    @Test
+    void eventsBehindAWaitingAggregateAreNotHeldUp() {
+        String a = UUID.randomUUID().toString();
+        String b = UUID.randomUUID().toString();
+        recordingHandler.failuresLeft.put(a + ":1", new AtomicInteger(2));
+
+        // a whole page of the waiting aggregate comes before the other one's event
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxPublisher.publish("Test", a, "TestEvent", 1);
+            outboxPublisher.publish("Test", a, "TestEvent", 2);
+            outboxPublisher.publish("Test", b, "TestEvent", 1);
+        });
+
+        await(() -> recordingHandler.delivered.contains(a + ":2") && recordingHandler.delivered.contains(b + ":1"));
+        List<String> delivered = new ArrayList<>(recordingHandler.delivered);
+        assertTrue(delivered.indexOf(b + ":1") < delivered.indexOf(a + ":1"), delivered.toString());
+        assertTrue(delivered.indexOf(a + ":1") < delivered.indexOf(a + ":2"), delivered.toString());
+    }
+
+    @Test
+    void eventThatKeepsFailingIsSetAside() {
+        String a = UUID.randomUUID().toString();
+        recordingHandler.failuresLeft.put(a + ":1", new AtomicInteger(Integer.MAX_VALUE));
+        long deadBefore = outboxRelay.stats().getDeadEvents();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outboxPublisher.publish("Test", a, "TestEvent", 1);
+            outboxPublisher.publish("Test", a, "OtherEvent", 2);
+        });
+
+        await(() -> recordingHandler.delivered.contains(a + ":2"));
+        assertFalse(recordingHandler.delivered.contains(a + ":1"));
+        assertEquals(deadBefore + 1, outboxRelay.stats().getDeadEvents());
+    }
+
+    @Test
+    void eventsArePublishedOnlyInsideATransaction() {
+        assertThrows(IllegalStateException.class, () -> outboxPublisher.publish("Test", "x", "TestEvent", 1));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "outbox events were not delivered in time");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    @TestConfiguration
+    static class Handlers {
+
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler("TestEvent");
+        }
+
+        @Bean
+        RecordingHandler otherHandler(RecordingHandler recordingHandler) {
+            RecordingHandler other = new RecordingHandler("OtherEvent");
+            other.delivered = recordingHandler.delivered;
+            other.failuresLeft = recordingHandler.failuresLeft;
+            return other;
+        }
+    }
+
+    static class RecordingHandler implements OutboxEventHandler {
+
+        private final String eventType;
+        // "aggregateId:payload" in delivery order, across both handlers
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        Map<String, AtomicInteger> failuresLeft = new ConcurrentHashMap<>();
+
+        RecordingHandler(String eventType) {
+            this.eventType = eventType;
+        }
+
+        @Override
+        public String eventType() {
+            return eventType;
+        }
+
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            for (OutboxEvent event : events) {
+                String key = event.getAggregateId() + ":" + event.getPayload();
+                AtomicInteger failures = failuresLeft.get(key);
+                if (failures != null && failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Handler failed for " + key);
+                }
+                delivered.add(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.exception.ServiceUnavailableException;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repository.UserRepository;
+import com.ecommerce.project.security.services.PooledPasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Password hashing runs on its bounded pool, refuses work at once when the pool is full, and
+ * rehashes a password made with another cost on sign-in.
+ */
+@SpringBootTest
+class PasswordHashingTest {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private PooledPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void hashesOnThePool() {
+        String hash = passwordEncoder.encode("password1");
+
+        assertTrue(passwordEncoder.matches("password1", hash));
+        assertFalse(passwordEncoder.matches("password2", hash));
+        assertTrue(passwordEncoder.stats().getCompletedHashes() >= 3);
+    }
+
+    @Test
+    void fullPoolRejectsAtOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PooledPasswordEncoder encoder = new PooledPasswordEncoder(blocking, 4, 1, 1, 1);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            while (encoder.stats().getQueueDepth() == 0) {
+                Thread.onSpinWait();
+            }
+
+            ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+                    () -> encoder.encode("c"));
+            assertEquals(1, rejected.getRetryAfterSeconds());
+            assertEquals(1, encoder.stats().getRejectedHashes());
+
+            release.countDown();
+            assertNotNull(running.get(5, TimeUnit.SECONDS));
+            assertNotNull(queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void signInRehashesPasswordOfAnotherCost() {
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        String oldHash = new BCryptPasswordEncoder(4).encode("password1");
+        User user = userRepository.save(new User(name, name + "@example.com", oldHash));
+        long rehashed = passwordEncoder.stats().getRehashedPasswords();
+        assertTrue(passwordEncoder.upgradeEncoding(oldHash));
+        // only a stored hash counts
+        assertEquals(rehashed, passwordEncoder.stats().getRehashedPasswords());
+
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(name, "password1"));
+        assertEquals(rehashed + 1, passwordEncoder.stats().getRehashedPasswords());
+
+        String newHash = userRepository.findById(user.getUserId()).orElseThrow().getPassword();
+        assertNotEquals(oldHash, newHash);
+        assertFalse(passwordEncoder.upgradeEncoding(newHash));
+        assertTrue(passwordEncoder.matches("password1", newHash));
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.cache.ProductCatalogCache;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listing pages are served from the cache until a catalog write drops them when it commits, and the
+ * cache stays within its weight (products held) by evicting the least recently used pages.
+ */
+class ProductCatalogCacheTest {
+
+    @Test
+    void pageIsLoadedOnceUntilInvalidated() {
+        ProductCatalogCache cache = new ProductCatalogCache(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        ProductResponse first = cache.get("all:0", () -> page(loads.incrementAndGet()));
+        assertSame(first, cache.get("all:0", () -> page(loads.incrementAndGet())));
+        assertEquals(1, loads.get());
+
+        cache.invalidateAll();
+        assertNotSame(first, cache.get("all:0", () -> page(loads.incrementAndGet())));
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(2, cache.stats().getMisses());
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void pageLoadedAcrossAWriteIsNotKept() {
+        ProductCatalogCache cache = new ProductCatalogCache(100);
+
+        // the write lands while the page is being read, so the page may predate it
+        cache.get("all:0", () -> {
+            cache.invalidateAll();
+            return page(1);
+        });
+
+        assertEquals(0, cache.stats().getEntries());
+    }
+
+    @Test
+    void writeInsideATransactionDropsPagesWhenItCommits() {
+        ProductCatalogCache cache = new ProductCatalogCache(100);
+        cache.get("all:0", () -> page(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateAfterCommit();
+            // until the commit, readers still see the rows the write is replacing
+            assertEquals(1, cache.stats().getEntries());
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0, cache.stats().getEntries());
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void leastRecentlyUsedPagesAreEvictedPastTheWeightBound() {
+        ProductCatalogCache cache = new ProductCatalogCache(10);
+        cache.get("a", () -> page(4));
+        cache.get("b", () -> page(4));
+        // touching "a" leaves "b" as the least recently used page
+        cache.get("a", () -> fail("page a should be cached"));
+
+        cache.get("c", () -> page(4));
+
+        assertEquals(2, cache.stats().getEntries());
+        assertEquals(8, cache.stats().getWeight());
+        assertEquals(1, cache.stats().getEvictions());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("a", () -> page(loads.incrementAndGet()));
+        cache.get("b", () -> page(loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void pageHeavierThanTheWholeCacheIsNotKept() {
+        ProductCatalogCache cache = new ProductCatalogCache(10);
+        cache.get("small", () -> page(3));
+
+        cache.get("huge", () -> page(11));
+
+        assertEquals(1, cache.stats().getEntries());
+        assertEquals(3, cache.stats().getWeight());
+    }
+
+    private static ProductResponse page(int products) {
+        List<ProductDTO> content = new ArrayList<>();
+        for (long i = 0; i < products; i++) {
+            content.add(new ProductDTO(i, "Product " + i, "Description", "default.png", 1, 10.0, 0.0, 10.0));
+        }
+        ProductResponse page = new ProductResponse();
+        page.setContent(content);
+        return page;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.ProductExportService;
+import com.ecommerce.project.service.ProductExportServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The export writes every product once, in id order, however many fetches the cursor takes.
+ */
+@SpringBootTest
+class ProductExportTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // fetches of three rows, so the catalog is read in many round trips
+    private ProductExportService exportService;
+    private Product quoted;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ProductExportServiceImpl(dataSource, 3);
+        Category category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        for (int i = 0; i < 10; i++) {
+            quoted = newProduct(category, "Product " + UUID.randomUUID(), "Says \"hello\", twice");
+        }
+    }
+
+    @Test
+    void ndjsonHasOneLinePerProductInIdOrder() throws IOException {
+        List<Long> expected = jdbcTemplate.queryForList("SELECT product_id FROM products ORDER BY product_id", Long.class);
+
+        List<Long> exported = new ArrayList<>();
+        for (String line : export("ndjson").split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            exported.add(row.get("productId").asLong());
+            if (row.get("productId").asLong() == quoted.getProductId()) {
+                assertEquals(quoted.getDescription(), row.get("description").asText());
+                assertEquals(quoted.getCategory().getCategoryName(), row.get("categoryName").asText());
+            }
+        }
+
+        assertEquals(expected, exported);
+    }
+
+    @Test
+    void csvHasAHeaderAndOneQuotedRowPerProduct() throws IOException {
+        long products = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+
+        String[] lines = export("csv").split("\n");
+
+        assertEquals(products + 1, lines.length);
+        assertTrue(lines[0].startsWith("productId,productName,description,"));
+        String quotedRow = List.of(lines).stream().filter(line -> line.startsWith(quoted.getProductId() + ",")).findFirst().orElseThrow();
+        assertTrue(quotedRow.contains(",\"Says \"\"hello\"\", twice\","), quotedRow);
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThrows(APIException.class, () -> exportService.exportProducts(new ByteArrayOutputStream(), "xml"));
+    }
+
+    private String export(String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportProducts(out, format);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Product newProduct(Category category, String name, String description) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription(description);
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.exception.APIException;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportResponse;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.search.ProductSearchIndex;
+import com.ecommerce.project.service.ProductImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A product file is imported in batches: good rows are written and searchable, bad rows are reported
+ * by line and do not stop the rest.
+ */
+@SpringBootTest
+class ProductImportTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    private Category category;
+    private Object importer;
+    private int batchSize;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        // batches of two, so the file below spans several of them
+        importer = AopTestUtils.getTargetObject(productImportService);
+        batchSize = (int) ReflectionTestUtils.getField(importer, "batchSize");
+        ReflectionTestUtils.setField(importer, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(importer, "batchSize", batchSize);
+    }
+
+    @Test
+    void csvRowsAreImportedAndBadRowsReportedByLine() throws IOException {
+        String token = "t" + UUID.randomUUID().toString().replace("-", "");
+        Product existing = new Product();
+        existing.setProductName("Existing lamp");
+        existing.setDescription("Description of the product");
+        existing.setQuantity(1);
+        existing.setPrice(10.0);
+        existing.setImage("default.png");
+        existing.setCategory(category);
+        productRepository.save(existing);
+
+        String file = String.join("\n",
+                "productName,description,quantity,price,discount",
+                token + " one,\"Soft, warm blanket\",5,100,10",
+                token + " two,Second product,6,200,",
+                "Existing lamp,Already in the category,1,10,0",
+                token + " three,Third product,seven,300,0",
+                "",
+                token + " one,Same name again,1,10,0",
+                token + " four,Fourth product,8,400,50",
+                token + " five,Fifth product,9,500,0");
+
+        ProductImportResponse response = productImportService.importProducts(category.getCategoryId(), stream(file), "csv");
+
+        assertEquals(7, response.getTotalRows());
+        assertEquals(4, response.getImportedRows());
+        assertEquals(3, response.getFailedRows());
+        assertEquals(List.of(4L, 5L, 7L), response.getErrors().stream().map(ProductImportResponse.RowError::getLine).toList());
+        assertEquals("quantity is not a number: seven", response.getErrors().get(1).getMessage());
+
+        List<ProductDTO> imported = productRepository.findProductDTOsByCategoryIdAndNames(category.getCategoryId(),
+                List.of(token + " one", token + " four"));
+        ProductDTO one = imported.stream().filter(p -> p.getProductName().equals(token + " one")).findFirst().orElseThrow();
+        assertEquals("Soft, warm blanket", one.getDescription());
+        assertEquals(5, one.getQuantity());
+        assertEquals(90.0, one.getSpecialPrice());
+        ProductDTO four = imported.stream().filter(p -> p.getProductName().equals(token + " four")).findFirst().orElseThrow();
+        assertEquals(200.0, four.getSpecialPrice());
+        assertEquals(5, productRepository.findProductNamesByCategoryId(category.getCategoryId()).size());
+
+        // every batch reached the search index, the last partial one included
+        assertEquals(4, productSearchIndex.search(token, 0, 10).getTotalItems());
+    }
+
+    @Test
+    void ndjsonRowsAreImported() throws IOException {
+        String file = String.join("\n",
+                "{\"productName\":\"Json kettle\",\"description\":\"Boils water\",\"quantity\":3,\"price\":40,\"discount\":25}",
+                "{\"productName\":\"Broken",
+                "{\"productName\":\"Json toaster\",\"description\":\"Toasts bread\",\"quantity\":2,\"price\":60,\"discount\":0}");
+
+        ProductImportResponse response = productImportService.importProducts(category.getCategoryId(), stream(file), "ndjson");
+
+        assertEquals(2, response.getImportedRows());
+        assertEquals(1, response.getFailedRows());
+        assertEquals(2, response.getErrors().get(0).getLine());
+        assertEquals(List.of("Json kettle", "Json toaster"),
+                productRepository.findProductNamesByCategoryId(category.getCategoryId()).stream().sorted().toList());
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThrows(APIException.class,
+                () -> productImportService.importProducts(category.getCategoryId(), stream(""), "xml"));
+    }
+
+    private static ByteArrayInputStream stream(String file) {
+        return new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,172 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyword search ranks from the in-memory index, takes writes when they commit, keeps writes made
+ * while the index is built and shows the products as they are now.
+ */
+@SpringBootTest
+class ProductSearchIndexTest {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+    }
+
+    @Test
+    void indexedProductsAreFoundUntilRemoved() {
+        String token = token();
+        Product product = newProduct(token + " phone");
+        productSearchIndex.index(product);
+
+        // every query token must match, and a token matches the terms it is a prefix of
+        assertEquals(List.of(product.getProductId()), ids(productSearchIndex.search(token + " pho", 0, 10)));
+        assertEquals(List.of(product.getProductId()), ids(productSearchIndex.search(token.substring(0, 20), 0, 10)));
+        assertTrue(ids(productSearchIndex.search(token + " tablet", 0, 10)).isEmpty());
+
+        productSearchIndex.remove(product.getProductId());
+        assertTrue(ids(productSearchIndex.search(token, 0, 10)).isEmpty());
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatchesAndPagesFollowTheRanking() {
+        String token = token();
+        Product inDescription = newProduct("Plain name", "Mentions " + token + " once");
+        Product inName = newProduct(token, "Description of the product");
+        productSearchIndex.index(inDescription);
+        productSearchIndex.index(inName);
+
+        ProductResponse first = productSearchIndex.search(token, 0, 1);
+        assertEquals(List.of(inName.getProductId()), ids(first));
+        assertEquals(2, first.getTotalItems());
+        assertFalse(first.isLastPage());
+        ProductResponse second = productSearchIndex.search(token, 1, 1);
+        assertEquals(List.of(inDescription.getProductId()), ids(second));
+        assertTrue(second.isLastPage());
+    }
+
+    @Test
+    void writesAreIndexedOnlyWhenTheyCommit() {
+        String committedToken = token();
+        String rolledBackToken = token();
+        Product product = newProduct(committedToken);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productSearchIndex.index(product);
+            assertTrue(ids(productSearchIndex.search(committedToken, 0, 10)).isEmpty());
+        });
+        assertEquals(List.of(product.getProductId()), ids(productSearchIndex.search(committedToken, 0, 10)));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productSearchIndex.index(dto(product, rolledBackToken));
+            productSearchIndex.remove(product.getProductId());
+            status.setRollbackOnly();
+        });
+        assertTrue(ids(productSearchIndex.search(rolledBackToken, 0, 10)).isEmpty());
+        assertEquals(List.of(product.getProductId()), ids(productSearchIndex.search(committedToken, 0, 10)));
+    }
+
+    @Test
+    void writesDuringTheBuildAreReplayedOnTheBuiltIndex() {
+        String removedToken = token();
+        String oldToken = token();
+        String newToken = token();
+        Product removed = newProduct(removedToken);
+        Product renamed = newProduct(oldToken);
+
+        // a second index stands in for one still waiting for its build; it takes writes meanwhile
+        ProductSearchIndex building = beanFactory.createBean(ProductSearchIndex.class);
+        assertFalse(building.isReady());
+        building.remove(removed.getProductId());
+        building.index(dto(renamed, newToken));
+
+        // the build still reads both rows as they were, but the writes made during it win
+        building.build();
+
+        assertTrue(building.isReady());
+        assertTrue(ids(building.search(removedToken, 0, 10)).isEmpty());
+        assertTrue(ids(building.search(oldToken, 0, 10)).isEmpty());
+        assertEquals(List.of(renamed.getProductId()), ids(building.search(newToken, 0, 10)));
+    }
+
+    @Test
+    void resultsCarryTheCurrentStock() {
+        String token = token();
+        Product product = newProduct(token);
+        productSearchIndex.index(product);
+
+        product.setQuantity(7);
+        productRepository.save(product);
+
+        ProductResponse found = productSearchIndex.search(token, 0, 10);
+        assertEquals(1, found.getContent().size());
+        assertEquals(7, found.getContent().get(0).getQuantity());
+    }
+
+    private static List<Long> ids(ProductResponse response) {
+        return response.getContent().stream().map(ProductDTO::getProductId).toList();
+    }
+
+    // one alphanumeric term no other product holds
+    private static String token() {
+        return "t" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static ProductDTO dto(Product product, String name) {
+        return new ProductDTO(product.getProductId(), name, product.getDescription(), product.getImage(),
+                product.getQuantity(), product.getPrice(), product.getDiscount(), product.getSpecialPrice());
+    }
+
+    private Product newProduct(String name) {
+        return newProduct(name, "Description of the product");
+    }
+
+    private Product newProduct(String name, String description) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription(description);
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Behind a trusted proxy, anonymous clients are limited by the address the proxy forwards, not by
+ * the proxy's own address.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // a database of its own: starting on the shared one would recreate the tables under the
+        // other cached test contexts
+        "spring.datasource.url=jdbc:h2:mem:ratelimit-trusted;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "server.forward-headers-strategy=native",
+        "server.tomcat.remoteip.internal-proxies=127\\.0\\.0\\.1|0:0:0:0:0:0:0:1",
+        "project.ratelimit.auth.limit=1"
+})
+class RateLimitClientAddressTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void forwardedClientsHaveBucketsOfTheirOwn() {
+        assertNotEquals(429, signIn("203.0.113.1"));
+        assertEquals(429, signIn("203.0.113.1"));
+
+        // same proxy (localhost), another client behind it
+        assertNotEquals(429, signIn("203.0.113.2"));
+    }
+
+    private int signIn(String clientAddress) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", clientAddress);
+        return restTemplate.postForEntity("/api/auth/signin",
+                new HttpEntity<>("{\"username\":\"nobody\",\"password\":\"wrong\"}", headers), String.class)
+                .getStatusCode().value();
+    }
+}
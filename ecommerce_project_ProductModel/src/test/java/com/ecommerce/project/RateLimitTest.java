@@ -0,0 +1,122 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.security.ratelimit.RateLimitFilter;
+import com.ecommerce.project.security.ratelimit.RateLimiter;
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests over a route's limit are refused with 429 and the standard headers, per user id or IP,
+ * buckets that have refilled are dropped, and the least busy ones make room for new clients.
+ */
+class RateLimitTest {
+
+    private RateLimiter rateLimiter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.invokeMethod(rateLimiter, "stop");
+    }
+
+    @Test
+    void requestsOverTheLimitAreRefused() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter(2, 60, 100));
+
+        MockHttpServletResponse first = get(filter, "/api/public/products/keyword/phone", "10.0.0.1");
+        assertEquals(200, first.getStatus());
+        assertEquals("2", first.getHeader("RateLimit-Limit"));
+        assertEquals("1", first.getHeader("RateLimit-Remaining"));
+        assertEquals("2;w=60", first.getHeader("RateLimit-Policy"));
+        assertEquals("0", get(filter, "/api/public/products/keyword/phone", "10.0.0.1").getHeader("RateLimit-Remaining"));
+
+        MockHttpServletResponse refused = get(filter, "/api/public/products/keyword/tv", "10.0.0.1");
+        assertEquals(429, refused.getStatus());
+        assertEquals("30", refused.getHeader("Retry-After"));
+        assertEquals("0", refused.getHeader("RateLimit-Remaining"));
+
+        assertEquals(200, get(filter, "/api/public/products/keyword/phone", "10.0.0.2").getStatus());
+        MockHttpServletResponse unlimited = get(filter, "/api/public/categories", "10.0.0.1");
+        assertEquals(200, unlimited.getStatus());
+        assertNull(unlimited.getHeader("RateLimit-Limit"));
+    }
+
+    @Test
+    void signedInUsersAreLimitedById() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter(1, 60, 100));
+        Userdetailsimpl user = new Userdetailsimpl(7L, null, "user7@example.com", "user7", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        assertEquals(200, get(filter, "/api/order/users/payments/card", "10.0.0.1").getStatus());
+        assertEquals(429, get(filter, "/api/order/users/payments/card", "10.0.0.2").getStatus());
+
+        SecurityContextHolder.clearContext();
+        assertEquals(200, get(filter, "/api/order/users/payments/card", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void refilledBucketsAreDropped() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter(1000, 1, 100));
+        for (int i = 0; i < 10; i++) {
+            get(filter, "/api/auth/signin", "10.0.1." + i);
+        }
+        assertEquals(10, rateLimiter.trackedClients());
+
+        Thread.sleep(5);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "sweep");
+
+        assertEquals(0, rateLimiter.trackedClients());
+    }
+
+    @Test
+    void clientsBeyondMaxEntriesEvictTheLeastBusyBuckets() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter(3, 60, 10));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, get(filter, "/api/auth/signin", "10.0.2.1").getStatus());
+        }
+
+        // many more addresses than there is room for: every one of them gets a bucket of its own
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, get(filter, "/api/auth/signin", "10.0.3." + i).getStatus());
+            assertTrue(rateLimiter.trackedClients() <= 10);
+        }
+
+        // and the busiest client kept its bucket
+        assertEquals(429, get(filter, "/api/auth/signin", "10.0.2.1").getStatus());
+    }
+
+    private RateLimiter rateLimiter(int limit, long periodSeconds, int maxEntries) {
+        rateLimiter = new RateLimiter();
+        for (String rule : List.of("search", "auth", "checkout")) {
+            ReflectionTestUtils.setField(rateLimiter, rule + "Limit", limit);
+            ReflectionTestUtils.setField(rateLimiter, rule + "PeriodSeconds", periodSeconds);
+        }
+        ReflectionTestUtils.setField(rateLimiter, "searchPatterns", new String[]{"/api/public/products/keyword/**"});
+        ReflectionTestUtils.setField(rateLimiter, "authPatterns", new String[]{"/api/auth/signin", "/api/auth/signup"});
+        ReflectionTestUtils.setField(rateLimiter, "checkoutPatterns", new String[]{"/api/order/users/payments/**"});
+        ReflectionTestUtils.setField(rateLimiter, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(rateLimiter, "sweepIntervalMs", 60000L);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "start");
+        return rateLimiter;
+    }
+
+    private static MockHttpServletResponse get(RateLimitFilter filter, String path, String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
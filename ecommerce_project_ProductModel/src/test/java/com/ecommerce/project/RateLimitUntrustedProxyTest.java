@@ -0,0 +1,47 @@
+package com.ecommerce.project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * A peer that is not a configured proxy cannot pick its own bucket with X-Forwarded-For: it is
+ * limited by its connection's address.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // a database of its own: starting on the shared one would recreate the tables under the
+        // other cached test contexts
+        "spring.datasource.url=jdbc:h2:mem:ratelimit-untrusted;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "server.forward-headers-strategy=native",
+        "server.tomcat.remoteip.internal-proxies=",
+        "project.ratelimit.auth.limit=1"
+})
+class RateLimitUntrustedProxyTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void forwardedAddressOfAnUntrustedPeerIsIgnored() {
+        assertNotEquals(429, signIn("203.0.113.1"));
+
+        // a new forwarded address every time does not get a new bucket
+        assertEquals(429, signIn("203.0.113.2"));
+    }
+
+    private int signIn(String clientAddress) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", clientAddress);
+        return restTemplate.postForEntity("/api/auth/signin",
+                new HttpEntity<>("{\"username\":\"nobody\",\"password\":\"wrong\"}", headers), String.class)
+                .getStatusCode().value();
+    }
+}
@@ -0,0 +1,211 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.SalesRankDTO;
+import com.ecommerce.project.payload.SalesRebuildStatus;
+import com.ecommerce.project.reporting.SalesAggregates;
+import com.ecommerce.project.repository.*;
+import com.ecommerce.project.service.OrderService;
+import com.ecommerce.project.service.SalesReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Placed orders reach the sales aggregates once, and a rebuild from the order lines gives the same numbers.
+ */
+@SpringBootTest(properties = {
+        // a database of its own: the relays of other cached test contexts would count these orders
+        // with aggregates that are not being rebuilt
+        "spring.datasource.url=jdbc:h2:mem:sales-report;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "project.outbox.pollIntervalMs=20",
+        "project.reports.rebuildChunkDays=1"
+})
+class SalesReportTest {
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private SalesAggregates salesAggregates;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private String email;
+    private Long addressId;
+    private Long categoryId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(new Category(null, "Category " + UUID.randomUUID(), null));
+        categoryId = category.getCategoryId();
+        Product product = new Product();
+        product.setProductName("Product " + UUID.randomUUID());
+        product.setDescription("Description of the product");
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product.setCategory(category);
+        productId = productRepository.save(product).getProductId();
+
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(name, name + "@example.com", "password"));
+        email = user.getEmail();
+        Address address = new Address("Country", "Some street", "Some building", "City", "State", "123456");
+        address.setUser(user);
+        addressId = addressRepository.save(address).getAddressId();
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartRepository.save(cart);
+    }
+
+    @Test
+    void placedOrdersAreAddedToEveryAggregate() {
+        placeOrder(2);
+        placeOrder(3);
+
+        await(() -> units(productSales()) == 5);
+        SalesRankDTO product = productSales();
+        assertEquals(450.0, product.getRevenue(), 0.001);
+        assertEquals(product.getName(), productRepository.findById(productId).orElseThrow().getProductName());
+
+        SalesRankDTO category = salesReportService.getTopCategories(null, null, 1000).stream()
+                .filter(row -> row.getId().equals(categoryId)).findFirst().orElseThrow();
+        assertEquals(5, category.getUnits());
+        assertEquals(450.0, category.getRevenue(), 0.001);
+
+        assertTrue(salesReportService.getDailySales(LocalDate.now(), LocalDate.now()).getOrders() >= 2);
+    }
+
+    @Test
+    void redeliveredOrderIsCountedOnce() {
+        OrderDTO order = placeOrder(2);
+        await(() -> units(productSales()) == 2);
+
+        salesAggregates.add(List.of(new SalesAggregates.SoldLine(order.getOrderId(), LocalDate.now(), productId,
+                categoryId, null, 2, 90.0)));
+
+        assertEquals(2, units(productSales()));
+    }
+
+    @Test
+    void rebuildGivesTheIncrementalNumbers() {
+        placeOrder(4);
+        await(() -> units(productSales()) == 4);
+
+        salesReportService.rebuild();
+        await(() -> !salesReportService.getRebuildStatus().isRunning());
+
+        SalesRebuildStatus status = salesReportService.getRebuildStatus();
+        assertNull(status.getError());
+        assertEquals(status.getTotalChunks(), status.getCompletedChunks());
+        SalesRankDTO product = productSales();
+        assertEquals(4, product.getUnits());
+        assertEquals(360.0, product.getRevenue(), 0.001);
+    }
+
+    @Test
+    void incrementsDuringARebuildFailFastAndAreAddedByIt() throws Exception {
+        ReadWriteLock rebuildLock = (ReadWriteLock) ReflectionTestUtils.getField(salesAggregates, "rebuildLock");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread rebuild = new Thread(() -> {
+            rebuildLock.writeLock().lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        });
+        rebuild.start();
+        OrderDTO order;
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            order = placeOrder(3);
+            assertThrows(IllegalStateException.class, () -> salesAggregates.add(List.of(new SalesAggregates.SoldLine(
+                    order.getOrderId(), LocalDate.now(), productId, categoryId, null, 3, 90.0))));
+            assertEquals(0, units(productSales()));
+
+            // what the rebuild does before it lets increments in again
+            ReflectionTestUtils.invokeMethod(salesAggregates, "addUncountedRecentOrders");
+            assertEquals(3, units(productSales()));
+        } finally {
+            release.countDown();
+            rebuild.join();
+        }
+
+        // the retried event finds the order counted
+        salesAggregates.add(List.of(new SalesAggregates.SoldLine(order.getOrderId(), LocalDate.now(), productId,
+                categoryId, null, 3, 90.0)));
+        assertEquals(3, units(productSales()));
+    }
+
+    private OrderDTO placeOrder(int quantity) {
+        Cart cart = cartRepository.findCartByEmail(email);
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(productRepository.findById(productId).orElseThrow());
+        cartItem.setQuantity(quantity);
+        cartItem.setProductPrice(90.0);
+        cartItemRepository.save(cartItem);
+        cart.setTotalPrice(90.0 * quantity);
+        cartRepository.save(cart);
+        return orderService.placeOrder(email, addressId, "card", "gateway", "pg-1", "success", "ok");
+    }
+
+    private SalesRankDTO productSales() {
+        return salesReportService.getTopProducts(null, null, 1000).stream()
+                .filter(row -> row.getId().equals(productId)).findFirst().orElse(null);
+    }
+
+    private static long units(SalesRankDTO row) {
+        return row == null ? 0 : row.getUnits();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "sales aggregates were not updated in time");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repository.RoleRepository;
+import com.ecommerce.project.repository.UserRepository;
+import com.ecommerce.project.security.jwt.AuthFilter;
+import com.ecommerce.project.security.jwt.JWTUtils;
+import com.ecommerce.project.security.services.TokenRevocations;
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import io.jsonwebtoken.Jwts;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests are authenticated from the token's claims alone, and revoking a user's tokens refuses
+ * the ones issued before, from the first request after a start.
+ */
+@SpringBootTest
+class StatelessAuthTest {
+
+    @Autowired
+    private JWTUtils jwtUtils;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    private AuthFilter authFilter;
+    private Userdetailsimpl user;
+
+    @BeforeEach
+    void setUp() {
+        authFilter = new AuthFilter();
+        ReflectionTestUtils.setField(authFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authFilter, "tokenRevocations", tokenRevocations);
+
+        String name = UUID.randomUUID().toString().substring(0, 8);
+        User entity = userRepository.save(new User(name, name + "@example.com", "password"));
+        entity.setRoles(Set.of(roleRepository.findByRoleName(AppRole.ROLE_SELLER).orElseThrow()));
+        userRepository.save(entity);
+        user = Userdetailsimpl.build(userRepository.findWithRolesByUserName(name).orElseThrow());
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void principalComesFromClaimsWithoutQueries() throws Exception {
+        String token = jwtUtils.getTokenFromUser(user);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Authentication authentication = authenticate(token);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertNotNull(authentication);
+        Userdetailsimpl principal = (Userdetailsimpl) authentication.getPrincipal();
+        assertEquals(user.getId(), principal.getId());
+        assertEquals(user.getUsername(), principal.getUsername());
+        assertEquals(user.getEmail(), principal.getEmail());
+        assertEquals(Set.of("ROLE_SELLER"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void revokedTokensAreRefused() throws Exception {
+        String token = jwtUtils.getTokenFromUser(user);
+
+        tokenRevocations.revoke(user.getId());
+
+        assertNull(authenticate(token));
+        Userdetailsimpl reloaded = Userdetailsimpl.build(
+                userRepository.findWithRolesByUserName(user.getUsername()).orElseThrow());
+        assertNotNull(authenticate(jwtUtils.getTokenFromUser(reloaded)));
+    }
+
+    @Test
+    void revocationsAreLoadedBeforeTheFirstRequest() throws Exception {
+        String token = jwtUtils.getTokenFromUser(user);
+        tokenRevocations.revoke(user.getId());
+
+        // a freshly started instance refuses the token without waiting for a background refresh
+        TokenRevocations restarted = beanFactory.createBean(TokenRevocations.class);
+        try {
+            ReflectionTestUtils.setField(authFilter, "tokenRevocations", restarted);
+            assertNull(authenticate(token));
+        } finally {
+            beanFactory.destroyBean(restarted);
+        }
+    }
+
+    @Test
+    void tokenWithoutUserClaimsIsRefused() throws Exception {
+        String token = Jwts.builder()
+                .subject(user.getUsername())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(jwtUtils.key())
+                .compact();
+
+        assertNull(authenticate(token));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/users/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        authFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.project;
+
+import com.ecommerce.project.util.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generated ids keep growing, never repeat across threads, and fit in the 53 bits a JavaScript
+ * number holds exactly.
+ */
+class TimeOrderedIdGeneratorTest {
+
+    private static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 20_000;
+
+    @Test
+    void idsGrowOnEveryCall() {
+        long previous = TimeOrderedIdGenerator.nextId();
+        // far more than one millisecond's sequence, so some ids borrow from the next millisecond
+        for (int i = 0; i < 20_000; i++) {
+            long id = TimeOrderedIdGenerator.nextId();
+            assertTrue(id > previous, id + " after " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                long[] ids = new long[IDS_PER_THREAD];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = TimeOrderedIdGenerator.nextId();
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (Future<long[]> result : results) {
+            long[] threadIds = result.get(30, TimeUnit.SECONDS);
+            for (int i = 0; i < threadIds.length; i++) {
+                if (i > 0) {
+                    assertTrue(threadIds[i] > threadIds[i - 1]);
+                }
+                ids.add(threadIds[i]);
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    void idHoldsTheTimeNodeAndSequence() {
+        long before = System.currentTimeMillis();
+        long id = TimeOrderedIdGenerator.nextId();
+
+        // 41 bits of milliseconds, 5 of node (0 unless configured), 7 of sequence
+        assertTrue(id > 0 && id < (1L << 53), Long.toBinaryString(id));
+        long millis = (id >>> 12) + EPOCH;
+        // an earlier burst may have borrowed a little from the coming milliseconds
+        assertTrue(millis >= before && millis < before + 5_000, "time part " + Instant.ofEpochMilli(millis));
+        assertEquals(0, (id >>> 7) & 31);
+
+        assertTrue(TimeOrderedIdGenerator.firstIdAt(Instant.ofEpochMilli(before)) <= id);
+        assertTrue(TimeOrderedIdGenerator.firstIdAt(Instant.ofEpochMilli(millis + 1)) > id);
+        // exact as a double, the way a JSON client reads it
+        assertEquals(id, (long) (double) id);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.security.jwt.AuthFilter;
+import com.ecommerce.project.security.jwt.JWTUtils;
+import com.ecommerce.project.security.services.TokenRevocations;
+import com.ecommerce.project.security.services.Userdetailsimpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests through {@link AuthFilter} with the cached key and a single parse per request, against
+ * the previous filter that rebuilt the key on every call and verified each token twice.
+ * <p>
+ * The current filter builds the principal from the token's claims; the legacy one looks the user
+ * up, here through an in-memory stub, so the database round trip it used to make is not part of
+ * its numbers and only the JWT handling is compared. Run
+ * {@link #main(String[])} from the IDE after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class AuthFilterBenchmark {
+
+    private static final String SECRET = "mySecretKey123912738abcdefghijklmnop123456789";
+
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    private AuthFilter authFilter;
+    private LegacyAuthFilter legacyAuthFilter;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JWTUtils jwtUtils = new JWTUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 3000000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCookie", "springBootEcom");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        Userdetailsimpl user = new Userdetailsimpl(1L, "password", "user1@example.com", "user1",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        UserDetailsService userDetailsService = username -> user;
+        token = jwtUtils.getTokenFromUser(user);
+
+        authFilter = new AuthFilter();
+        ReflectionTestUtils.setField(authFilter, "jwtUtils", jwtUtils);
+        // not started: no revocations, no background refresh
+        ReflectionTestUtils.setField(authFilter, "tokenRevocations", new TokenRevocations());
+        legacyAuthFilter = new LegacyAuthFilter(userDetailsService);
+    }
+
+    @Benchmark
+    public Object cachedKeySingleParse() throws Exception {
+        return authenticate(authFilter);
+    }
+
+    @Benchmark
+    public Object keyPerCallDoubleParse() throws Exception {
+        return authenticate(legacyAuthFilter);
+    }
+
+    private Object authenticate(OncePerRequestFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts/users/cart");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    /**
+     * The filter as it was: a new key for every parse, and the token verified by
+     * {@code validateToken} and again by {@code getUsernameFromJWTToken}.
+     */
+    static class LegacyAuthFilter extends OncePerRequestFilter {
+
+        private final UserDetailsService userDetailsService;
+
+        LegacyAuthFilter(UserDetailsService userDetailsService) {
+            this.userDetailsService = userDetailsService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws java.io.IOException, jakarta.servlet.ServletException {
+            String jwt = request.getHeader("Authorization").substring(7);
+            Jwts.parser().verifyWith(key()).build().parseSignedClaims(jwt);
+            String username = Jwts.parser().verifyWith(key()).build().parseSignedClaims(jwt).getPayload().getSubject();
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails,
+                    null, userDetails.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            filterChain.doFilter(request, response);
+        }
+
+        private static SecretKey key() {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
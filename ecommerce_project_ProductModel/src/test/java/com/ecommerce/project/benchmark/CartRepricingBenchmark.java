@@ -0,0 +1,148 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.EcommerceProjectApplication;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repository.CartItemRepository;
+import com.ecommerce.project.repository.CartRepository;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares repricing a product in every cart that holds it one cart at a time (the old
+ * {@code updateProduct} loop) with the set-based batches {@code CartRepricingPipeline} now runs
+ * in the background for each price change.
+ * <p>
+ * Runs against the in-memory test database. Run {@link #main(String[])} from the IDE
+ * after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class CartRepricingBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"100", "1000"})
+    private int carts;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private CartRepository cartRepository;
+    private CartItemRepository cartItemRepository;
+    private ProductRepository productRepository;
+    private CartService cartService;
+
+    private Long productId;
+    private int priceChanges;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EcommerceProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        cartRepository = context.getBean(CartRepository.class);
+        cartItemRepository = context.getBean(CartItemRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+        cartService = context.getBean(CartService.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(new Category(null, "Benchmark", null));
+        Product product = new Product();
+        product.setCategory(category);
+        product.setProductName("Benchmark product");
+        product.setDescription("Product sitting in every cart");
+        product.setQuantity(1000);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        product = productRepository.save(product);
+        productId = product.getProductId();
+
+        List<Cart> savedCarts = new ArrayList<>();
+        for (int i = 0; i < carts; i++) {
+            Cart cart = new Cart();
+            cart.setTotalPrice(180.0);
+            savedCarts.add(cart);
+        }
+        savedCarts = cartRepository.saveAll(savedCarts);
+        List<CartItem> cartItems = new ArrayList<>();
+        for (Cart cart : savedCarts) {
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(2);
+            cartItem.setDiscount(10.0);
+            cartItem.setProductPrice(90.0);
+            cartItems.add(cartItem);
+        }
+        cartItemRepository.saveAll(cartItems);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void perCart() {
+        double specialPrice = changePrice();
+        // the old service code: load the carts holding the product, then per cart reload the cart,
+        // the product and the cart item and save the repriced item
+        List<Cart> cartsWithProduct = cartRepository.findCartsByProductId(productId);
+        for (Cart found : cartsWithProduct) {
+            Cart cart = cartRepository.findById(found.getCartId()).orElseThrow();
+            Product product = productRepository.findById(productId).orElseThrow();
+            CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
+            cart.setTotalPrice(cart.getTotalPrice() - cartItem.getProductPrice() * cartItem.getQuantity()
+                    + product.getSpecialPrice() * cartItem.getQuantity());
+            cartItem.setProductPrice(specialPrice);
+            cartItemRepository.save(cartItem);
+        }
+    }
+
+    @Benchmark
+    public int setBased() {
+        changePrice();
+        int repriced;
+        int total = 0;
+        do {
+            repriced = cartService.repriceProductInCarts(productId, BATCH_SIZE);
+            total += repriced;
+        } while (repriced == BATCH_SIZE);
+        return total;
+    }
+
+    private double changePrice() {
+        // alternate between two prices so that every invocation really reprices every cart
+        double specialPrice = (priceChanges++ % 2 == 0) ? 81.0 : 90.0;
+        jdbcTemplate.update("UPDATE products SET special_price = ? WHERE product_id = ?", specialPrice, productId);
+        return specialPrice;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartRepricingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.EcommerceProjectApplication;
+import com.ecommerce.project.model.*;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.repository.AddressRepository;
+import com.ecommerce.project.repository.CartRepository;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.repository.UserRepository;
+import com.ecommerce.project.service.OrderService;
+import com.ecommerce.project.util.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout latency against the number of lines in the cart.
+ * <p>
+ * Runs {@code placeOrder} against the in-memory test database, refilling the cart before every
+ * call. Run {@link #main(String[])} from the IDE after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int cartLines;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private OrderService orderService;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private String email;
+    private Long addressId;
+    private Long cartId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EcommerceProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        orderService = context.getBean(OrderService.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(new Category(null, "Benchmark", null));
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        for (int i = 0; i < cartLines; i++) {
+            Product product = new Product();
+            product.setCategory(category);
+            product.setProductName("Benchmark product " + i);
+            product.setDescription("Product checked out over and over");
+            product.setQuantity(Integer.MAX_VALUE);
+            product.setPrice(100.0);
+            product.setDiscount(10.0);
+            product.setSpecialPrice(90.0);
+            product.setImage("default.png");
+            productIds.add(productRepository.save(product).getProductId());
+        }
+
+        email = "benchmark@example.com";
+        User user = context.getBean(UserRepository.class).save(new User("benchmark", email, "password"));
+        Address address = new Address("Country", "Some street", "Some building", "City", "State", "123456");
+        address.setUser(user);
+        addressId = context.getBean(AddressRepository.class).save(address).getAddressId();
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartId = context.getBean(CartRepository.class).save(cart).getCartId();
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        List<Object[]> lines = new ArrayList<>();
+        for (Long productId : productIds) {
+            lines.add(new Object[]{TimeOrderedIdGenerator.nextId(), cartId, productId, 2, 10.0, 90.0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_item_id, cart_id, product_id, quantity, discount, product_price) VALUES (?, ?, ?, ?, ?, ?)", lines);
+        jdbcTemplate.update("UPDATE carts SET total_price = ? WHERE cart_id = ?", 180.0 * cartLines, cartId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO placeOrder() {
+        return orderService.placeOrder(email, addressId, "card", "gateway", "pg-1", "success", "ok");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CheckoutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
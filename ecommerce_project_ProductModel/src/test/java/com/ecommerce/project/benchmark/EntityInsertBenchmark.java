@@ -0,0 +1,104 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.EcommerceProjectApplication;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.ProductImportService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows inserted per second through {@code saveAll} (the path checkout uses for order lines) and
+ * through the bulk product import.
+ * <p>
+ * Scores are rows per second. Runs against the in-memory test database. Run {@link #main(String[])}
+ * from the IDE after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@OperationsPerInvocation(EntityInsertBenchmark.ROWS)
+public class EntityInsertBenchmark {
+
+    static final int ROWS = 500;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductImportService productImportService;
+    private TransactionTemplate transactionTemplate;
+    private Category category;
+    private long invocations;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EcommerceProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        productImportService = context.getBean(ProductImportService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        category = context.getBean(CategoryRepository.class).save(new Category(null, "Benchmark", null));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> saveAll() {
+        long run = invocations++;
+        List<Product> products = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Product product = new Product();
+            product.setCategory(category);
+            product.setProductName("Saved product " + run + "-" + i);
+            product.setDescription("Product inserted by the benchmark");
+            product.setQuantity(100);
+            product.setPrice(100.0);
+            product.setDiscount(10.0);
+            product.setSpecialPrice(90.0);
+            product.setImage("default.png");
+            products.add(product);
+        }
+        return transactionTemplate.execute(status -> productRepository.saveAll(products));
+    }
+
+    @Benchmark
+    public long bulkImport() throws IOException {
+        long run = invocations++;
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            file.append("{\"productName\":\"Imported product ").append(run).append('-').append(i)
+                    .append("\",\"description\":\"Product imported by the benchmark\",\"quantity\":100,\"price\":100.0,\"discount\":10.0}\n");
+        }
+        return productImportService.importProducts(category.getCategoryId(),
+                new ByteArrayInputStream(file.toString().getBytes(StandardCharsets.UTF_8)), "ndjson").getImportedRows();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EntityInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.EcommerceProjectApplication;
+import com.ecommerce.project.inventory.FlashSaleInventory;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads reserving the same product at once: through the conditional UPDATE on its
+ * {@code products} row, and from the flash-sale counter in memory.
+ * <p>
+ * Runs against the in-memory test database. Run {@link #main(String[])} from the IDE
+ * after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(16)
+@Fork(1)
+public class FlashSaleBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private Map<Long, Integer> rowProduct;
+    private Map<Long, Integer> flashSaleProduct;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EcommerceProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        inventoryService = context.getBean(InventoryService.class);
+        Category category = context.getBean(CategoryRepository.class).save(new Category(null, "Benchmark", null));
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        rowProduct = Map.of(productRepository.save(hotProduct(category, "Row product")).getProductId(), 1);
+        Long flashSaleId = productRepository.save(hotProduct(category, "Flash sale product")).getProductId();
+        context.getBean(FlashSaleInventory.class).startSale(flashSaleId);
+        flashSaleProduct = Map.of(flashSaleId, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void databaseRow() {
+        inventoryService.reserve(rowProduct);
+    }
+
+    @Benchmark
+    public void flashSale() {
+        inventoryService.reserve(flashSaleProduct);
+    }
+
+    private static Product hotProduct(Category category, String name) {
+        Product product = new Product();
+        product.setCategory(category);
+        product.setProductName(name);
+        product.setDescription("Limited drop everybody wants");
+        product.setQuantity(Integer.MAX_VALUE);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        product.setImage("default.png");
+        return product;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FlashSaleBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.EcommerceProjectApplication;
+import com.ecommerce.project.exception.ServiceUnavailableException;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repository.CategoryRepository;
+import com.ecommerce.project.repository.ProductRepository;
+import com.ecommerce.project.security.services.PooledPasswordEncoder;
+import com.ecommerce.project.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Catalog read latency while a login storm is going on.
+ * <p>
+ * Sixteen threads sign in as fast as they can, each checking a cost-10 BCrypt hash, while two
+ * threads page through the catalog. With {@code requestThread} the hash runs on the calling thread,
+ * as sign-in did before, and the storm competes with the catalog reads for every core. With
+ * {@code pooled} it goes through {@link PooledPasswordEncoder}: the storm gets the hashing workers
+ * and sign-ins beyond the queue are refused at once, so the {@code browse} percentiles should stay
+ * close to those of an idle system. Compare the {@code browse} p99 of the two runs.
+ * Run {@link #main(String[])} from the IDE after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class LoginSpikeBenchmark {
+
+    @Param({"pooled", "requestThread"})
+    private String hashing;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(EcommerceProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "project.auth.bcryptStrength=10")
+                .run();
+        productService = context.getBean(ProductService.class);
+        passwordEncoder = hashing.equals("pooled")
+                ? context.getBean(PooledPasswordEncoder.class)
+                : new BCryptPasswordEncoder(10);
+        hash = passwordEncoder.encode("password1");
+
+        Category category = context.getBean(CategoryRepository.class).save(new Category(null, "Benchmark", null));
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        for (int i = 0; i < 200; i++) {
+            Product product = new Product();
+            product.setCategory(category);
+            product.setProductName("Benchmark product " + i);
+            product.setDescription("Product browsed during a login storm");
+            product.setQuantity(100);
+            product.setPrice(100.0);
+            product.setDiscount(10.0);
+            product.setSpecialPrice(90.0);
+            product.setImage("default.png");
+            productRepository.save(product);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("loginSpike")
+    @GroupThreads(16)
+    public Object login() {
+        try {
+            return passwordEncoder.matches("password1", hash);
+        } catch (ServiceUnavailableException e) {
+            // the 503 a client would get; it backs off instead of retrying in a tight loop
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Group("loginSpike")
+    @GroupThreads(2)
+    public Object browse() {
+        return productService.getAllProduct(0, 20, "productId", "asc");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginSpikeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.mapper.CartMapper;
+import com.ecommerce.project.mapper.CartMapperImpl;
+import com.ecommerce.project.mapper.ProductMapper;
+import com.ecommerce.project.mapper.ProductMapperImpl;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generated MapStruct mappers with the reflective ModelMapper they replaced.
+ * <p>
+ * Run {@link #main(String[])} from the IDE after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private CartMapper cartMapper;
+
+    private Product product;
+    private Cart cart;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        productMapper = new ProductMapperImpl();
+        cartMapper = new CartMapperImpl(productMapper);
+
+        product = product(1L);
+        cart = new Cart();
+        cart.setCartId(1L);
+        for (long i = 1; i <= 10; i++) {
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product(i));
+            cartItem.setQuantity(2);
+            cartItem.setProductPrice(90.0);
+            cart.getCartItems().add(cartItem);
+        }
+        cart.setTotalPrice(1800.0);
+    }
+
+    @Benchmark
+    public ProductDTO productModelMapper() {
+        return modelMapper.map(product, ProductDTO.class);
+    }
+
+    @Benchmark
+    public ProductDTO productMapStruct() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public CartDTO cartModelMapper() {
+        // the old service code: map the cart, then map each product and override the quantity
+        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        cartDTO.setProducts(cart.getCartItems().stream().map(item -> {
+            ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
+            productDTO.setQuantity(item.getQuantity());
+            return productDTO;
+        }).toList());
+        return cartDTO;
+    }
+
+    @Benchmark
+    public CartDTO cartMapStruct() {
+        return cartMapper.toDto(cart);
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setDescription("Description of product " + id);
+        product.setImage("default.png");
+        product.setQuantity(100);
+        product.setPrice(100.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(90.0);
+        return product;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MappingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
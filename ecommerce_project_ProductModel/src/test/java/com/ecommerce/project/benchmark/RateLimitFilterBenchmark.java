@@ -0,0 +1,93 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.security.ratelimit.RateLimitFilter;
+import com.ecommerce.project.security.ratelimit.RateLimiter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link RateLimitFilter} per request, on a limited route against a route no rule matches.
+ * <p>
+ * Eight threads send requests from {@code clients} distinct addresses, so with one client every
+ * thread competes for the same bucket and with many the map is large. The limit is set high enough
+ * that nothing is refused; the difference between {@code limitedRoute} and {@code unlimitedRoute}
+ * is the overhead of the bucket itself. Run {@link #main(String[])} from the IDE after
+ * {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    @Param({"1", "1000", "100000"})
+    private int clients;
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+    private String[] addresses;
+
+    @Setup
+    public void setup() {
+        rateLimiter = new RateLimiter();
+        for (String rule : new String[]{"search", "auth", "checkout"}) {
+            ReflectionTestUtils.setField(rateLimiter, rule + "Limit", Integer.MAX_VALUE);
+            ReflectionTestUtils.setField(rateLimiter, rule + "PeriodSeconds", 1L);
+        }
+        ReflectionTestUtils.setField(rateLimiter, "searchPatterns", new String[]{"/api/public/products/keyword/**"});
+        ReflectionTestUtils.setField(rateLimiter, "authPatterns", new String[]{"/api/auth/signin", "/api/auth/signup"});
+        ReflectionTestUtils.setField(rateLimiter, "checkoutPatterns", new String[]{"/api/order/users/payments/**"});
+        ReflectionTestUtils.setField(rateLimiter, "maxEntries", 200000);
+        ReflectionTestUtils.setField(rateLimiter, "sweepIntervalMs", 1000L);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "start");
+        filter = new RateLimitFilter(rateLimiter);
+
+        addresses = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            addresses[i] = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(rateLimiter, "stop");
+    }
+
+    @Benchmark
+    public Object limitedRoute() throws Exception {
+        return send("/api/public/products/keyword/phone");
+    }
+
+    @Benchmark
+    public Object unlimitedRoute() throws Exception {
+        return send("/api/public/categories");
+    }
+
+    private Object send(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(addresses[ThreadLocalRandom.current().nextInt(clients)]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, NO_OP);
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}